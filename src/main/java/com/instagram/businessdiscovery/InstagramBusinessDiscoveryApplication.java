@@ -3,9 +3,11 @@ package com.instagram.businessdiscovery;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 public class InstagramBusinessDiscoveryApplication {
 
     public static void main(String[] args) {
@@ -1,6 +1,10 @@
 package com.instagram.businessdiscovery.config;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.instagram.businessdiscovery.service.CachedDiscovery;
+import com.instagram.businessdiscovery.service.DiscoveryKey;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -14,20 +18,37 @@ import java.time.Duration;
 public class CacheConfig {
 
     @Bean
-    public CacheManager cacheManager() {
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public CacheManager cacheManager(AsyncCache<DiscoveryKey, CachedDiscovery> businessDiscoveryAsyncCache) {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
         cacheManager.setAsyncCacheMode(true);
         cacheManager.setCaffeine(Caffeine.newBuilder()
                 .maximumSize(1000)
                 .expireAfterWrite(Duration.ofSeconds(60))
                 .recordStats());
+        cacheManager.registerCustomCache("businessDiscovery", (AsyncCache) businessDiscoveryAsyncCache);
         return cacheManager;
     }
 
+    /**
+     * Resolved business discovery results. Entries are kept for the whole stale-if-error
+     * window; freshness is decided by BusinessDiscoveryCache from the fetch time.
+     */
+    @Bean
+    public AsyncCache<DiscoveryKey, CachedDiscovery> businessDiscoveryAsyncCache(
+            @Value("${instagram.api.business-discovery.cache.maximum-size:10000}") long maximumSize,
+            @Value("${instagram.api.business-discovery.cache.stale-if-error:24h}") Duration staleIfError) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(staleIfError)
+                .recordStats()
+                .buildAsync();
+    }
+
     @Bean
     public Caffeine<Object, Object> caffeineConfig() {
         return Caffeine.newBuilder()
                 .maximumSize(1000)
                 .expireAfterWrite(Duration.ofSeconds(60));
     }
-}
\ No newline at end of file
+}
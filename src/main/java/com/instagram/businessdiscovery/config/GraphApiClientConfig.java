@@ -0,0 +1,70 @@
+package com.instagram.businessdiscovery.config;
+
+import com.instagram.businessdiscovery.service.GraphApiThrottle;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Reactor Netty client used for every Graph API and OAuth call.
+ */
+@Configuration
+public class GraphApiClientConfig {
+
+    private static final int MAX_RESPONSE_SIZE = 1024 * 1024;
+
+    /**
+     * Connection pool for Graph API hosts. Limits apply per remote host; pool gauges and the
+     * pending-acquire timer are published under reactor.netty.connection.provider.* with name=graph-api.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider graphApiConnectionProvider(
+            @Value("${instagram.api.http-client.max-connections:500}") int maxConnections,
+            @Value("${instagram.api.http-client.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+            @Value("${instagram.api.http-client.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+            @Value("${instagram.api.http-client.max-idle-time:50s}") Duration maxIdleTime,
+            @Value("${instagram.api.http-client.max-life-time:10m}") Duration maxLifeTime,
+            @Value("${instagram.api.http-client.evict-interval:30s}") Duration evictInterval) {
+        return ConnectionProvider.builder("graph-api")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInterval)
+                .lifo()
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Graph API client; every call passes through the usage throttle
+     */
+    @Bean
+    public WebClient graphApiWebClient(
+            WebClient.Builder webClientBuilder,
+            ConnectionProvider graphApiConnectionProvider,
+            GraphApiThrottle graphApiThrottle,
+            @Value("${instagram.api.http-client.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${instagram.api.http-client.response-timeout:30s}") Duration responseTimeout) {
+        HttpClient httpClient = HttpClient.create(graphApiConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .compress(true)
+                .responseTimeout(responseTimeout);
+
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(MAX_RESPONSE_SIZE))
+                .filter(graphApiThrottle.filter())
+                .build();
+    }
+}
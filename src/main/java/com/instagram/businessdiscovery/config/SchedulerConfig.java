@@ -0,0 +1,30 @@
+package com.instagram.businessdiscovery.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class SchedulerConfig {
+
+    private static final int IDLE_WORKER_TTL_SECONDS = 60;
+
+    /**
+     * Bounded scheduler for blocking JPA work called from reactive pipelines.
+     * Sized to the connection pool so queued tasks wait here instead of holding a thread.
+     * With spring.threads.virtual.enabled the workers are virtual threads.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jpaScheduler(
+            @Value("${instagram.jpa-scheduler.thread-cap:10}") int threadCap,
+            @Value("${instagram.jpa-scheduler.queued-task-cap:10000}") int queuedTaskCap,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Schedulers.newBoundedElastic(threadCap, queuedTaskCap,
+                    Thread.ofVirtual().name("jpa-", 1).factory(), IDLE_WORKER_TTL_SECONDS);
+        }
+        return Schedulers.newBoundedElastic(threadCap, queuedTaskCap, "jpa");
+    }
+}
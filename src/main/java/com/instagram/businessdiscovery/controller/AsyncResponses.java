@@ -0,0 +1,33 @@
+package com.instagram.businessdiscovery.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Completes controller results either asynchronously or on the request thread,
+ * depending on instagram.web.async-mode. In async mode the servlet thread is
+ * released while the pipeline is pending and the response is written on completion.
+ */
+@Component
+public class AsyncResponses {
+
+    private final boolean asyncMode;
+
+    public AsyncResponses(@Value("${instagram.web.async-mode:false}") boolean asyncMode) {
+        this.asyncMode = asyncMode;
+    }
+
+    public <T> CompletableFuture<T> complete(Mono<T> result) {
+        if (asyncMode) {
+            return result.toFuture();
+        }
+        return CompletableFuture.completedFuture(result.block());
+    }
+
+    public boolean isAsyncMode() {
+        return asyncMode;
+    }
+}
@@ -12,7 +12,9 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequiredArgsConstructor
@@ -21,6 +23,8 @@ public class AuthController {
 
     private final InstagramApiService instagramApiService;
     private final UserService userService;
+    private final AsyncResponses asyncResponses;
+    private final Scheduler jpaScheduler;
 
     @Value("${facebook.client-id}")
     private String clientId;
@@ -54,37 +58,35 @@ public class AuthController {
     }
 
     @GetMapping("/facebook/callback")
-    public String handleCallback(@RequestParam("code") String code, Model model) {
+    public CompletableFuture<String> handleCallback(@RequestParam("code") String code, Model model) {
         log.info("Received authorization callback with code");
         
-        try {
-            // Exchange code for access token and get user profile
-            Mono<User> userMono = instagramApiService.getAccessToken(code)
-                    .flatMap(accessToken -> 
-                        instagramApiService.getInstagramBusinessAccountId(accessToken)
-                                .flatMap(instagramAccountId -> 
-                                    instagramApiService.getUserProfile(instagramAccountId, accessToken)
-                                            .publishOn(Schedulers.boundedElastic())
-                                            .map(profile -> userService.createOrUpdateUser(profile, accessToken))
-                                )
-                    );
+        // Exchange code for access token and get user profile
+        Mono<String> view = instagramApiService.getAccessToken(code)
+                .flatMap(accessToken -> 
+                    instagramApiService.getInstagramBusinessAccountId(accessToken)
+                            .flatMap(instagramAccountId -> 
+                                instagramApiService.getUserProfile(instagramAccountId, accessToken)
+                                        .publishOn(jpaScheduler)
+                                        .map(profile -> userService.createOrUpdateUser(profile, accessToken))
+                            )
+                )
+                .map(user -> {
+                    log.info("Successfully authenticated user: {}", user.getUsername());
+                    model.addAttribute("user", user);
+                    return "redirect:/dashboard?userId=" + user.getId();
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    model.addAttribute("error", "Failed to authenticate user");
+                    return "error";
+                }))
+                .onErrorResume(e -> {
+                    log.error("Authentication failed: {}", e.getMessage(), e);
+                    model.addAttribute("error", "Authentication failed: " + e.getMessage());
+                    return Mono.just("error");
+                });
 
-            User user = userMono.block();
-            
-            if (user != null) {
-                log.info("Successfully authenticated user: {}", user.getUsername());
-                model.addAttribute("user", user);
-                return "redirect:/dashboard?userId=" + user.getId();
-            } else {
-                model.addAttribute("error", "Failed to authenticate user");
-                return "error";
-            }
-            
-        } catch (Exception e) {
-            log.error("Authentication failed: {}", e.getMessage(), e);
-            model.addAttribute("error", "Authentication failed: " + e.getMessage());
-            return "error";
-        }
+        return asyncResponses.complete(view);
     }
 
     @GetMapping("/logout")
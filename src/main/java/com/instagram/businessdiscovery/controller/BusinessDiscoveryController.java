@@ -1,17 +1,27 @@
 package com.instagram.businessdiscovery.controller;
 
 import com.instagram.businessdiscovery.domain.User;
+import com.instagram.businessdiscovery.dto.BatchSearchRequest;
+import com.instagram.businessdiscovery.dto.BatchSearchResultDto;
 import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.service.AccountMetricsService;
 import com.instagram.businessdiscovery.service.BusinessDiscoveryService;
 import com.instagram.businessdiscovery.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequestMapping("/business-discovery")
@@ -21,6 +31,14 @@ public class BusinessDiscoveryController {
 
     private final BusinessDiscoveryService businessDiscoveryService;
     private final UserService userService;
+    private final AccountMetricsService accountMetricsService;
+    private final AsyncResponses asyncResponses;
+
+    @Value("${instagram.api.business-discovery.batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${instagram.api.business-discovery.history.page-size:20}")
+    private int historyPageSize;
 
     @GetMapping
     public String businessDiscoveryPage(@RequestParam("userId") Long userId, Model model) {
@@ -41,7 +59,7 @@ public class BusinessDiscoveryController {
 
     @PostMapping("/search")
     @ResponseBody
-    public ResponseEntity<?> searchBusinessAccount(
+    public CompletableFuture<ResponseEntity<?>> searchBusinessAccount(
             @RequestParam("userId") Long userId,
             @RequestParam("targetUsername") String targetUsername,
             @RequestParam(value = "includeMedia", defaultValue = "false") boolean includeMedia) {
@@ -49,37 +67,88 @@ public class BusinessDiscoveryController {
         log.info("Business discovery search request - User ID: {}, Target: {}, Include Media: {}", 
                 userId, targetUsername, includeMedia);
         
-        try {
-            Optional<User> userOpt = userService.findById(userId);
-            if (userOpt.isEmpty()) {
-                return ResponseEntity.badRequest().body("User not found");
-            }
-
-            User user = userOpt.get();
-            
-            // Check for cached result first
-            Optional<BusinessDiscoveryDto> cachedResult = businessDiscoveryService.getCachedResult(user, targetUsername);
-            if (cachedResult.isPresent()) {
-                log.debug("Returning cached result for target: {}", targetUsername);
-                return ResponseEntity.ok(cachedResult.get());
-            }
-            
-            // Perform new search
-            BusinessDiscoveryDto result = businessDiscoveryService
-                    .searchBusinessAccount(user, targetUsername, includeMedia)
-                    .block();
-            
-            if (result != null) {
-                log.info("Successfully completed business discovery for target: {}", targetUsername);
-                return ResponseEntity.ok(result);
-            } else {
-                return ResponseEntity.badRequest().body("No data found for the specified username");
-            }
-            
-        } catch (Exception e) {
-            log.error("Business discovery search failed: {}", e.getMessage(), e);
-            return ResponseEntity.badRequest().body("Search failed: " + e.getMessage());
+        Optional<User> userOpt = userService.findById(userId);
+        if (userOpt.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("User not found"));
+        }
+
+        // Cached results are checked first; the search itself only runs on a miss
+        Mono<ResponseEntity<?>> response = businessDiscoveryService
+                .searchOrGetCached(userOpt.get(), targetUsername, includeMedia)
+                .<ResponseEntity<?>>map(result -> {
+                    log.info("Successfully completed business discovery for target: {}", targetUsername);
+                    return ResponseEntity.ok(result);
+                })
+                .onErrorResume(e -> {
+                    log.error("Business discovery search failed: {}", e.getMessage(), e);
+                    return Mono.just(ResponseEntity.badRequest().body("Search failed: " + e.getMessage()));
+                });
+
+        return asyncResponses.complete(response);
+    }
+
+    @PostMapping(value = "/batch", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @ResponseBody
+    public ResponseEntity<Flux<BatchSearchResultDto>> batchSearchBusinessAccounts(
+            @RequestParam("userId") Long userId,
+            @RequestBody BatchSearchRequest request) {
+
+        log.info("Batch business discovery request - User ID: {}, Targets: {}, Include Media: {}",
+                userId, request.getTargetUsernames() != null ? request.getTargetUsernames().size() : 0, request.isIncludeMedia());
+
+        if (request.getTargetUsernames() == null || request.getTargetUsernames().isEmpty()) {
+            return ResponseEntity.badRequest().body(batchError("At least one target username is required"));
+        }
+        if (request.getTargetUsernames().size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body(batchError("Maximum " + maxBatchSize + " target usernames per batch"));
+        }
+
+        Optional<User> userOpt = userService.findById(userId);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body(batchError("User not found"));
         }
+
+        return ResponseEntity.ok(businessDiscoveryService
+                .searchBusinessAccounts(userOpt.get(), request.getTargetUsernames(), request.isIncludeMedia()));
+    }
+
+    @GetMapping(value = "/media", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @ResponseBody
+    public ResponseEntity<Flux<BusinessDiscoveryDto.MediaInsightDto>> streamMedia(
+            @RequestParam("userId") Long userId,
+            @RequestParam("targetUsername") String targetUsername,
+            @RequestParam(value = "maxPosts", defaultValue = "1000") int maxPosts,
+            @RequestParam(value = "days", defaultValue = "90") int days) {
+
+        Optional<User> userOpt = userService.findById(userId);
+        if (userOpt.isEmpty() || targetUsername.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(businessDiscoveryService
+                .streamMedia(userOpt.get(), targetUsername.trim(), maxPosts, Duration.ofDays(days)));
+    }
+
+    @GetMapping(value = "/media/insights", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @ResponseBody
+    public ResponseEntity<Flux<BusinessDiscoveryDto.AccountInsightsDto>> streamMediaInsights(
+            @RequestParam("userId") Long userId,
+            @RequestParam("targetUsername") String targetUsername,
+            @RequestParam(value = "maxPosts", defaultValue = "1000") int maxPosts,
+            @RequestParam(value = "days", defaultValue = "90") int days) {
+
+        Optional<User> userOpt = userService.findById(userId);
+        if (userOpt.isEmpty() || targetUsername.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(businessDiscoveryService
+                .streamInsights(userOpt.get(), targetUsername.trim(), maxPosts, Duration.ofDays(days)));
+    }
+
+    private Flux<BatchSearchResultDto> batchError(String message) {
+        return Flux.just(BatchSearchResultDto.builder()
+                .status(BatchSearchResultDto.Status.FAILED)
+                .error(message)
+                .build());
     }
 
     @GetMapping("/history")
@@ -91,16 +160,73 @@ public class BusinessDiscoveryController {
         }
 
         User user = userOpt.get();
-        var searchHistory = businessDiscoveryService.getSearchHistory(user);
+        var historyPage = businessDiscoveryService.getSearchHistoryPage(user, null, historyPageSize);
         var searchStats = businessDiscoveryService.getSearchStatistics(user);
         
         model.addAttribute("user", user);
-        model.addAttribute("searchHistory", searchHistory);
+        model.addAttribute("searchHistory", historyPage.getItems());
+        model.addAttribute("nextCursor", historyPage.getNextCursor());
         model.addAttribute("searchStats", searchStats);
         
         return "search-history";
     }
 
+    @GetMapping("/history/page")
+    @ResponseBody
+    public ResponseEntity<?> searchHistoryPage(
+            @RequestParam("userId") Long userId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size) {
+        Optional<User> userOpt = userService.findById(userId);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body("User not found");
+        }
+
+        try {
+            return ResponseEntity.ok(businessDiscoveryService.getSearchHistoryPage(
+                    userOpt.get(), cursor, size != null ? size : historyPageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/history/{searchId}/result")
+    @ResponseBody
+    public ResponseEntity<?> searchResult(@PathVariable("searchId") Long searchId, @RequestParam("userId") Long userId) {
+        Optional<User> userOpt = userService.findById(userId);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body("User not found");
+        }
+
+        return businessDiscoveryService.getSearchResult(userOpt.get(), searchId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Follower, following, media and engagement trend of a target over the last days,
+     * one point per bucket (0 for raw samples)
+     */
+    @GetMapping("/trends")
+    @ResponseBody
+    public ResponseEntity<?> trends(
+            @RequestParam("userId") Long userId,
+            @RequestParam("targetInstagramId") String targetInstagramId,
+            @RequestParam(value = "days", defaultValue = "90") int days,
+            @RequestParam(value = "bucketHours", defaultValue = "24") int bucketHours) {
+        Optional<User> userOpt = userService.findById(userId);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body("User not found");
+        }
+        if (days <= 0 || bucketHours < 0) {
+            return ResponseEntity.badRequest().body("days must be positive and bucketHours not negative");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return ResponseEntity.ok(accountMetricsService.getSeries(targetInstagramId, now.minusDays(days), now,
+                Duration.ofHours(bucketHours)));
+    }
+
     @GetMapping("/stats")
     @ResponseBody
     public ResponseEntity<?> getSearchStats(@RequestParam("userId") Long userId) {
@@ -19,6 +19,8 @@ import java.util.Optional;
 @Slf4j
 public class DashboardController {
 
+    private static final int RECENT_SEARCHES_LIMIT = 10;
+
     private final UserService userService;
     private final BusinessDiscoveryService businessDiscoveryService;
 
@@ -34,13 +36,11 @@ public class DashboardController {
 
         User user = userOpt.get();
         
-        // Get user's search history
-        var searchHistory = businessDiscoveryService.getSearchHistory(user);
+        // Get the latest page of the user's search history
         var searchStats = businessDiscoveryService.getSearchStatistics(user);
-        var recentSearches = businessDiscoveryService.getRecentSearches(user);
+        var recentSearches = businessDiscoveryService.getSearchHistoryPage(user, null, RECENT_SEARCHES_LIMIT).getItems();
         
         model.addAttribute("user", user);
-        model.addAttribute("searchHistory", searchHistory);
         model.addAttribute("searchStats", searchStats);
         model.addAttribute("recentSearches", recentSearches);
         
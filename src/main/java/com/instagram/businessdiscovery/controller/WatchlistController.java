@@ -0,0 +1,66 @@
+package com.instagram.businessdiscovery.controller;
+
+import com.instagram.businessdiscovery.domain.User;
+import com.instagram.businessdiscovery.service.UserService;
+import com.instagram.businessdiscovery.service.WatchlistService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+
+@Controller
+@RequestMapping("/business-discovery/watchlist")
+@RequiredArgsConstructor
+@Slf4j
+public class WatchlistController {
+
+    private final WatchlistService watchlistService;
+    private final UserService userService;
+
+    @GetMapping
+    @ResponseBody
+    public ResponseEntity<?> getWatchlist(@RequestParam("userId") Long userId) {
+        Optional<User> userOpt = userService.findById(userId);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body("User not found");
+        }
+
+        return ResponseEntity.ok(watchlistService.getWatchlist(userOpt.get()));
+    }
+
+    @PostMapping
+    @ResponseBody
+    public ResponseEntity<?> watch(
+            @RequestParam("userId") Long userId,
+            @RequestParam("targetUsername") String targetUsername,
+            @RequestParam(value = "includeMedia", defaultValue = "false") boolean includeMedia) {
+        Optional<User> userOpt = userService.findById(userId);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body("User not found");
+        }
+
+        try {
+            return ResponseEntity.ok(watchlistService.watch(userOpt.get(), targetUsername, includeMedia));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping
+    @ResponseBody
+    public ResponseEntity<?> unwatch(
+            @RequestParam("userId") Long userId,
+            @RequestParam("targetUsername") String targetUsername) {
+        Optional<User> userOpt = userService.findById(userId);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.badRequest().body("User not found");
+        }
+
+        return watchlistService.unwatch(userOpt.get(), targetUsername)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
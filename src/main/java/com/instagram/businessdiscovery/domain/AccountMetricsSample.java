@@ -0,0 +1,46 @@
+package com.instagram.businessdiscovery.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One compact, append-only sample of a target account's counters per successful lookup.
+ * Trends are read from here instead of decoding stored search results.
+ */
+@Entity
+@Table(name = "account_metrics_samples",
+        indexes = @Index(name = "idx_account_metrics_target_time", columnList = "target_instagram_id, sampled_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountMetricsSample {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "target_instagram_id", nullable = false)
+    private String targetInstagramId;
+
+    @Column(name = "sampled_at", nullable = false)
+    private LocalDateTime sampledAt;
+
+    @Column(name = "followers_count")
+    private Integer followersCount;
+
+    @Column(name = "follows_count")
+    private Integer followsCount;
+
+    @Column(name = "media_count")
+    private Integer mediaCount;
+
+    // Null when the lookup was made without media
+    @Column(name = "average_engagement_rate")
+    private Double averageEngagementRate;
+}
@@ -5,7 +5,6 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -17,8 +16,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class BusinessDiscoverySearch {
     
+    // Pooled sequence rather than IDENTITY, so the search writer's inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "business_discovery_searches_seq")
+    @SequenceGenerator(name = "business_discovery_searches_seq", sequenceName = "business_discovery_searches_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,9 +32,14 @@ public class BusinessDiscoverySearch {
     @Column(name = "target_instagram_id")
     private String targetInstagramId;
     
+    // Legacy plain JSON results, new rows use searchResultData
     @Column(name = "search_result", columnDefinition = "TEXT")
     private String searchResult;
     
+    // Result encoded by SearchResultCodecs, starting with a format version byte
+    @Column(name = "search_result_data", columnDefinition = "bytea")
+    private byte[] searchResultData;
+    
     @Column(name = "search_status")
     @Enumerated(EnumType.STRING)
     private SearchStatus searchStatus;
@@ -41,9 +47,17 @@ public class BusinessDiscoverySearch {
     @Column(name = "error_message")
     private String errorMessage;
     
-    @CreationTimestamp
-    @Column(name = "created_at")
+    // Time of the search; set by the search writer, which inserts after a delay. The table is
+    // partitioned by month on it, see db/migration
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
+
+    @PrePersist
+    void prePersist() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
     
     public enum SearchStatus {
         SUCCESS, FAILED, PENDING
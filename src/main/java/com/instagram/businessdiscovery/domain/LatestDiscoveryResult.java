@@ -0,0 +1,66 @@
+package com.instagram.businessdiscovery.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Latest successful business discovery result per target, shared by all searchers.
+ * A row is inserted once and afterwards only replaced through conditional updates by fetch time.
+ */
+@Entity
+@Table(name = "latest_discovery_results")
+@IdClass(LatestDiscoveryResult.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatestDiscoveryResult implements Persistable<LatestDiscoveryResult.Key> {
+
+    @Id
+    @Column(name = "target_username", nullable = false)
+    private String targetUsername;
+
+    @Id
+    @Column(name = "include_media", nullable = false)
+    private boolean includeMedia;
+
+    @Column(name = "target_instagram_id")
+    private String targetInstagramId;
+
+    // Legacy plain JSON results, new rows use searchResultData
+    @Column(name = "search_result", columnDefinition = "TEXT")
+    private String searchResult;
+
+    // Result encoded by SearchResultCodecs, starting with a format version byte
+    @Column(name = "search_result_data", columnDefinition = "bytea")
+    private byte[] searchResultData;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+
+    @Override
+    public Key getId() {
+        return new Key(targetUsername, includeMedia);
+    }
+
+    // Always an insert: a merge would overwrite a newer row stored concurrently
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String targetUsername;
+        private boolean includeMedia;
+    }
+}
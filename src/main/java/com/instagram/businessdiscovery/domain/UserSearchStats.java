@@ -0,0 +1,49 @@
+package com.instagram.businessdiscovery.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running search counters per user, maintained as searches are saved.
+ * A row is inserted once and afterwards only changed through atomic increments.
+ */
+@Entity
+@Table(name = "user_search_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchStats implements Persistable<Long> {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "total_searches", nullable = false)
+    private long totalSearches;
+
+    @Column(name = "successful_searches", nullable = false)
+    private long successfulSearches;
+
+    @Column(name = "failed_searches", nullable = false)
+    private long failedSearches;
+
+    @Column(name = "last_search_at")
+    private LocalDateTime lastSearchAt;
+
+    @Override
+    public Long getId() {
+        return userId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,46 @@
+package com.instagram.businessdiscovery.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A target a user watches; watched targets are refreshed in the background from the user's
+ * spare search budget so their searches find warm results
+ */
+@Entity
+@Table(name = "watchlist_entries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_watchlist_user_target", columnNames = {"user_id", "target_username"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WatchlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // Normalized as in DiscoveryKey
+    @Column(name = "target_username", nullable = false)
+    private String targetUsername;
+
+    @Column(name = "include_media", nullable = false)
+    private boolean includeMedia;
+
+    @Column(name = "last_refreshed_at")
+    private LocalDateTime lastRefreshedAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,35 @@
+package com.instagram.businessdiscovery.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One point of a target account's trend: a raw sample, or the last counters and average
+ * engagement of a downsampled bucket
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountMetricsPointDto {
+
+    @JsonProperty("sampled_at")
+    private LocalDateTime sampledAt;
+
+    @JsonProperty("followers_count")
+    private Integer followersCount;
+
+    @JsonProperty("follows_count")
+    private Integer followsCount;
+
+    @JsonProperty("media_count")
+    private Integer mediaCount;
+
+    @JsonProperty("average_engagement_rate")
+    private Double averageEngagementRate;
+}
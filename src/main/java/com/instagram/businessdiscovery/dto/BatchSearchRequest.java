@@ -0,0 +1,19 @@
+package com.instagram.businessdiscovery.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSearchRequest {
+
+    private List<String> targetUsernames;
+
+    private boolean includeMedia;
+}
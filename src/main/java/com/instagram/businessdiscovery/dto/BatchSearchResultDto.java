@@ -0,0 +1,29 @@
+package com.instagram.businessdiscovery.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchSearchResultDto {
+
+    @JsonProperty("target_username")
+    private String targetUsername;
+
+    private Status status;
+
+    private BusinessDiscoveryDto result;
+
+    private String error;
+
+    public enum Status {
+        SUCCESS, FAILED
+    }
+}
@@ -7,9 +7,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class BusinessDiscoveryDto {
@@ -75,7 +76,7 @@ public class BusinessDiscoveryDto {
     }
     
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
     @AllArgsConstructor
     public static class AccountInsightsDto {
@@ -94,5 +95,44 @@ public class BusinessDiscoveryDto {
         
         @JsonProperty("follower_growth_rate")
         private Double followerGrowthRate;
+        
+        @JsonProperty("average_likes")
+        private Double averageLikes;
+        
+        @JsonProperty("average_comments")
+        private Double averageComments;
+        
+        // Estimated with a streaming quantile sketch
+        @JsonProperty("median_engagement_rate")
+        private Double medianEngagementRate;
+        
+        @JsonProperty("p90_engagement_rate")
+        private Double p90EngagementRate;
+        
+        // Posting cadence between the oldest and newest dated post
+        @JsonProperty("posts_per_day")
+        private Double postsPerDay;
+        
+        @JsonProperty("engagement_by_media_type")
+        private Map<String, MediaTypeEngagementDto> engagementByMediaType;
+        
+        // Most engaging posts first
+        @JsonProperty("top_posts")
+        private List<MediaInsightDto> topPosts;
+    }
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MediaTypeEngagementDto {
+        
+        private Integer posts;
+        
+        @JsonProperty("average_engagement")
+        private Double averageEngagement;
+        
+        @JsonProperty("average_engagement_rate")
+        private Double averageEngagementRate;
     }
 }
\ No newline at end of file
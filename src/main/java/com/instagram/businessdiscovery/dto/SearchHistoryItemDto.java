@@ -0,0 +1,37 @@
+package com.instagram.businessdiscovery.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.instagram.businessdiscovery.domain.BusinessDiscoverySearch;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Search history row without the stored result, which is loaded on demand
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHistoryItemDto {
+
+    private Long id;
+
+    @JsonProperty("target_username")
+    private String targetUsername;
+
+    @JsonProperty("target_instagram_id")
+    private String targetInstagramId;
+
+    @JsonProperty("search_status")
+    private BusinessDiscoverySearch.SearchStatus searchStatus;
+
+    @JsonProperty("error_message")
+    private String errorMessage;
+
+    @JsonProperty("created_at")
+    private LocalDateTime createdAt;
+}
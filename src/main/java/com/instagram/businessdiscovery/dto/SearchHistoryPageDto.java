@@ -0,0 +1,22 @@
+package com.instagram.businessdiscovery.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHistoryPageDto {
+
+    private List<SearchHistoryItemDto> items;
+
+    // Opaque cursor for the next page, null on the last page
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+}
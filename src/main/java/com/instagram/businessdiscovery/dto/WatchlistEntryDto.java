@@ -0,0 +1,30 @@
+package com.instagram.businessdiscovery.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WatchlistEntryDto {
+
+    private Long id;
+
+    @JsonProperty("target_username")
+    private String targetUsername;
+
+    @JsonProperty("include_media")
+    private boolean includeMedia;
+
+    @JsonProperty("last_refreshed_at")
+    private LocalDateTime lastRefreshedAt;
+
+    @JsonProperty("created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,27 @@
+package com.instagram.businessdiscovery.repository;
+
+import com.instagram.businessdiscovery.domain.AccountMetricsSample;
+import com.instagram.businessdiscovery.dto.AccountMetricsPointDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountMetricsSampleRepository extends JpaRepository<AccountMetricsSample, Long> {
+
+    @Query("SELECT new com.instagram.businessdiscovery.dto.AccountMetricsPointDto(ams.sampledAt, ams.followersCount, " +
+            "ams.followsCount, ams.mediaCount, ams.averageEngagementRate) FROM AccountMetricsSample ams " +
+            "WHERE ams.targetInstagramId = :targetInstagramId AND ams.sampledAt >= :from AND ams.sampledAt < :to " +
+            "ORDER BY ams.sampledAt ASC")
+    List<AccountMetricsPointDto> findRange(@Param("targetInstagramId") String targetInstagramId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    Optional<AccountMetricsSample> findFirstByTargetInstagramIdAndSampledAtGreaterThanEqualOrderBySampledAtAsc(
+            String targetInstagramId, LocalDateTime since);
+}
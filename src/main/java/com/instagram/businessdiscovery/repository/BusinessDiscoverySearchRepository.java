@@ -2,21 +2,35 @@ package com.instagram.businessdiscovery.repository;
 
 import com.instagram.businessdiscovery.domain.BusinessDiscoverySearch;
 import com.instagram.businessdiscovery.domain.User;
+import com.instagram.businessdiscovery.dto.SearchHistoryItemDto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface BusinessDiscoverySearchRepository extends JpaRepository<BusinessDiscoverySearch, Long> {
     
-    List<BusinessDiscoverySearch> findBySearcherUserOrderByCreatedAtDesc(User searcherUser);
+    @Query("SELECT new com.instagram.businessdiscovery.dto.SearchHistoryItemDto(bds.id, bds.targetUsername, bds.targetInstagramId, " +
+            "bds.searchStatus, bds.errorMessage, bds.createdAt) FROM BusinessDiscoverySearch bds " +
+            "WHERE bds.searcherUser.id = :userId ORDER BY bds.createdAt DESC, bds.id DESC")
+    List<SearchHistoryItemDto> findHistoryFirstPage(@Param("userId") Long userId, Limit limit);
     
-    Optional<BusinessDiscoverySearch> findBySearcherUserAndTargetUsername(User searcherUser, String targetUsername);
+    @Query("SELECT new com.instagram.businessdiscovery.dto.SearchHistoryItemDto(bds.id, bds.targetUsername, bds.targetInstagramId, " +
+            "bds.searchStatus, bds.errorMessage, bds.createdAt) FROM BusinessDiscoverySearch bds " +
+            "WHERE bds.searcherUser.id = :userId " +
+            "AND (bds.createdAt < :createdAt OR (bds.createdAt = :createdAt AND bds.id < :id)) " +
+            "ORDER BY bds.createdAt DESC, bds.id DESC")
+    List<SearchHistoryItemDto> findHistoryPageAfter(@Param("userId") Long userId,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") Long id,
+                                                    Limit limit);
     
     @Query("SELECT bds FROM BusinessDiscoverySearch bds WHERE bds.searcherUser = :user AND bds.createdAt >= :since")
     List<BusinessDiscoverySearch> findRecentSearchesByUser(@Param("user") User user, @Param("since") LocalDateTime since);
@@ -25,4 +39,33 @@ public interface BusinessDiscoverySearchRepository extends JpaRepository<Busines
     Long countSearchesByUserSince(@Param("user") User user, @Param("since") LocalDateTime since);
     
     List<BusinessDiscoverySearch> findByTargetUsernameOrderByCreatedAtDesc(String targetUsername);
+    
+    @Query("SELECT bds.searcherUser.id AS searcherUserId, bds.createdAt AS createdAt FROM BusinessDiscoverySearch bds WHERE bds.createdAt >= :since")
+    List<SearchTimestamp> findSearchTimestampsSince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT bds.searchStatus AS searchStatus, COUNT(bds) AS searchCount, MAX(bds.createdAt) AS lastSearchAt " +
+            "FROM BusinessDiscoverySearch bds WHERE bds.searcherUser.id = :userId GROUP BY bds.searchStatus")
+    List<StatusCount> countSearchesByStatus(@Param("userId") Long userId);
+    
+    /**
+     * Create the missing monthly partitions of the search table, for the given number of months
+     * from the month of fromMonth; returns how many were created
+     */
+    @Transactional
+    @Query(value = "SELECT create_search_partitions(:fromMonth, :months)", nativeQuery = true)
+    int createMonthlyPartitions(@Param("fromMonth") LocalDate fromMonth, @Param("months") int months);
+    
+    interface StatusCount {
+        BusinessDiscoverySearch.SearchStatus getSearchStatus();
+        
+        long getSearchCount();
+        
+        LocalDateTime getLastSearchAt();
+    }
+    
+    interface SearchTimestamp {
+        Long getSearcherUserId();
+        
+        LocalDateTime getCreatedAt();
+    }
 }
\ No newline at end of file
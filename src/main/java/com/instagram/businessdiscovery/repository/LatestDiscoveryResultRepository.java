@@ -0,0 +1,26 @@
+package com.instagram.businessdiscovery.repository;
+
+import com.instagram.businessdiscovery.domain.LatestDiscoveryResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface LatestDiscoveryResultRepository extends JpaRepository<LatestDiscoveryResult, LatestDiscoveryResult.Key> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE LatestDiscoveryResult ldr SET ldr.targetInstagramId = :targetInstagramId, ldr.searchResult = NULL, " +
+            "ldr.searchResultData = :searchResultData, ldr.fetchedAt = :fetchedAt WHERE ldr.targetUsername = :targetUsername AND ldr.includeMedia = :includeMedia " +
+            "AND ldr.fetchedAt < :fetchedAt")
+    int updateIfNewer(@Param("targetUsername") String targetUsername,
+                      @Param("includeMedia") boolean includeMedia,
+                      @Param("targetInstagramId") String targetInstagramId,
+                      @Param("searchResultData") byte[] searchResultData,
+                      @Param("fetchedAt") LocalDateTime fetchedAt);
+}
@@ -0,0 +1,26 @@
+package com.instagram.businessdiscovery.repository;
+
+import com.instagram.businessdiscovery.domain.UserSearchStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface UserSearchStatsRepository extends JpaRepository<UserSearchStats, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserSearchStats uss SET uss.totalSearches = uss.totalSearches + :successful + :failed, " +
+            "uss.successfulSearches = uss.successfulSearches + :successful, " +
+            "uss.failedSearches = uss.failedSearches + :failed, " +
+            "uss.lastSearchAt = GREATEST(COALESCE(uss.lastSearchAt, :searchedAt), :searchedAt) WHERE uss.userId = :userId")
+    int increment(@Param("userId") Long userId,
+                  @Param("successful") long successful,
+                  @Param("failed") long failed,
+                  @Param("searchedAt") LocalDateTime searchedAt);
+}
@@ -0,0 +1,56 @@
+package com.instagram.businessdiscovery.repository;
+
+import com.instagram.businessdiscovery.domain.WatchlistEntry;
+import com.instagram.businessdiscovery.dto.WatchlistEntryDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WatchlistEntryRepository extends JpaRepository<WatchlistEntry, Long> {
+
+    @Query("SELECT new com.instagram.businessdiscovery.dto.WatchlistEntryDto(we.id, we.targetUsername, we.includeMedia, " +
+            "we.lastRefreshedAt, we.createdAt) FROM WatchlistEntry we WHERE we.user.id = :userId ORDER BY we.createdAt ASC, we.id ASC")
+    List<WatchlistEntryDto> findByUserId(@Param("userId") Long userId);
+
+    long countByUserId(Long userId);
+
+    Optional<WatchlistEntry> findByUserIdAndTargetUsername(Long userId, String targetUsername);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM WatchlistEntry we WHERE we.user.id = :userId AND we.targetUsername = :targetUsername")
+    int deleteByUserIdAndTargetUsername(@Param("userId") Long userId, @Param("targetUsername") String targetUsername);
+
+    /**
+     * Every watch with what the refresher needs from its user, without loading the user entities
+     */
+    @Query("SELECT we.user.id AS userId, u.instagramId AS instagramId, u.accessToken AS accessToken, " +
+            "we.targetUsername AS targetUsername, we.includeMedia AS includeMedia " +
+            "FROM WatchlistEntry we JOIN we.user u WHERE u.accessToken IS NOT NULL")
+    List<Watch> findAllWatches();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE WatchlistEntry we SET we.lastRefreshedAt = :refreshedAt WHERE we.targetUsername = :targetUsername")
+    int markRefreshed(@Param("targetUsername") String targetUsername, @Param("refreshedAt") LocalDateTime refreshedAt);
+
+    interface Watch {
+        Long getUserId();
+
+        String getInstagramId();
+
+        String getAccessToken();
+
+        String getTargetUsername();
+
+        boolean getIncludeMedia();
+    }
+}
@@ -0,0 +1,134 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.domain.AccountMetricsSample;
+import com.instagram.businessdiscovery.dto.AccountMetricsPointDto;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.repository.AccountMetricsSampleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Follower and engagement time series per target account, one sample per Graph API fetch
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AccountMetricsService {
+
+    private final AccountMetricsSampleRepository repository;
+
+    @Value("${instagram.api.business-discovery.metrics.growth-window:30d}")
+    private Duration growthWindow;
+
+    /**
+     * Append a sample for the result and return the follower growth in percent since the
+     * oldest sample within the growth window, or null when there is nothing to compare with
+     */
+    @Transactional
+    public Double record(BusinessDiscoveryDto result, LocalDateTime sampledAt) {
+        if (result.getId() == null) {
+            return null;
+        }
+        BusinessDiscoveryDto.AccountInsightsDto insights = result.getInsights();
+        Double growthRate = followerGrowthRate(result, sampledAt);
+
+        repository.save(AccountMetricsSample.builder()
+                .targetInstagramId(result.getId())
+                .sampledAt(sampledAt)
+                .followersCount(result.getFollowersCount())
+                .followsCount(result.getFollowsCount())
+                .mediaCount(result.getMediaCount())
+                .averageEngagementRate(insights != null ? insights.getAverageEngagementRate() : null)
+                .build());
+        log.debug("Recorded metrics sample for target {}, follower growth {}", result.getId(), growthRate);
+        return growthRate;
+    }
+
+    /**
+     * Follower growth in percent of the result, fetched at the given time, since the oldest sample
+     * within the growth window before it, or null when there is nothing to compare with
+     */
+    @Transactional(readOnly = true)
+    public Double followerGrowthRate(BusinessDiscoveryDto result, LocalDateTime fetchedAt) {
+        if (result.getId() == null) {
+            return null;
+        }
+        return repository.findFirstByTargetInstagramIdAndSampledAtGreaterThanEqualOrderBySampledAtAsc(
+                        result.getId(), fetchedAt.minus(growthWindow))
+                .map(baseline -> growthRate(baseline.getFollowersCount(), result.getFollowersCount()))
+                .orElse(null);
+    }
+
+    /**
+     * Samples of the target between from (inclusive) and to (exclusive), oldest first. With a bucket,
+     * samples are downsampled to one point per bucket: the last counters and the average engagement.
+     */
+    @Transactional(readOnly = true)
+    public List<AccountMetricsPointDto> getSeries(String targetInstagramId, LocalDateTime from, LocalDateTime to,
+                                                  Duration bucket) {
+        List<AccountMetricsPointDto> samples = repository.findRange(targetInstagramId, from, to);
+        if (bucket == null || bucket.isZero() || bucket.isNegative()) {
+            return samples;
+        }
+        return downsample(samples, bucket.toSeconds());
+    }
+
+    static List<AccountMetricsPointDto> downsample(List<AccountMetricsPointDto> samples, long bucketSeconds) {
+        List<AccountMetricsPointDto> points = new ArrayList<>();
+        AccountMetricsPointDto point = null;
+        long currentBucket = Long.MIN_VALUE;
+        double engagementSum = 0;
+        int engagementSamples = 0;
+
+        for (AccountMetricsPointDto sample : samples) {
+            long bucket = Math.floorDiv(sample.getSampledAt().toEpochSecond(ZoneOffset.UTC), bucketSeconds);
+            if (bucket != currentBucket) {
+                if (point != null) {
+                    point.setAverageEngagementRate(engagementSamples > 0 ? engagementSum / engagementSamples : null);
+                    points.add(point);
+                }
+                currentBucket = bucket;
+                point = AccountMetricsPointDto.builder()
+                        .sampledAt(LocalDateTime.ofEpochSecond(bucket * bucketSeconds, 0, ZoneOffset.UTC))
+                        .build();
+                engagementSum = 0;
+                engagementSamples = 0;
+            }
+            // Counters are cumulative, so the last sample of the bucket stands for it
+            if (sample.getFollowersCount() != null) {
+                point.setFollowersCount(sample.getFollowersCount());
+            }
+            if (sample.getFollowsCount() != null) {
+                point.setFollowsCount(sample.getFollowsCount());
+            }
+            if (sample.getMediaCount() != null) {
+                point.setMediaCount(sample.getMediaCount());
+            }
+            if (sample.getAverageEngagementRate() != null) {
+                engagementSum += sample.getAverageEngagementRate();
+                engagementSamples++;
+            }
+        }
+        if (point != null) {
+            point.setAverageEngagementRate(engagementSamples > 0 ? engagementSum / engagementSamples : null);
+            points.add(point);
+        }
+        return points;
+    }
+
+    private static Double growthRate(Integer baseline, Integer current) {
+        if (baseline == null || baseline == 0 || current == null) {
+            return null;
+        }
+        return (double) (current - baseline) / baseline * 100;
+    }
+}
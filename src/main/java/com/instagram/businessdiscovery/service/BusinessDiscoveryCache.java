@@ -0,0 +1,162 @@
+package com.instagram.businessdiscovery.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Reactive stale-while-revalidate cache of resolved business discovery results.
+ * <ul>
+ *     <li>younger than fresh-ttl: served straight from the cache</li>
+ *     <li>younger than fresh-ttl + stale-while-revalidate: served immediately, refreshed in the background</li>
+ *     <li>older: refreshed synchronously, the stale value is served if Graph API fails</li>
+ * </ul>
+ * Entries are evicted after stale-if-error. Lookups are counted by which of these paths they took;
+ * Caffeine's own hit, miss and eviction counts are bound by Actuator as cache.* meters.
+ */
+@Component
+@Slf4j
+public class BusinessDiscoveryCache {
+
+    private final AsyncCache<DiscoveryKey, CachedDiscovery> cache;
+    private final Counter freshHits;
+    private final Counter staleHits;
+    private final Counter expiredHits;
+    private final Counter pendingHits;
+    private final Counter misses;
+
+    @Value("${instagram.api.business-discovery.cache.fresh-ttl:5m}")
+    private Duration freshTtl;
+
+    @Value("${instagram.api.business-discovery.cache.stale-while-revalidate:1h}")
+    private Duration staleWhileRevalidate;
+
+    public BusinessDiscoveryCache(AsyncCache<DiscoveryKey, CachedDiscovery> businessDiscoveryAsyncCache,
+                                  MeterRegistry meterRegistry) {
+        this.cache = businessDiscoveryAsyncCache;
+        this.freshHits = lookupCounter(meterRegistry, "fresh");
+        this.staleHits = lookupCounter(meterRegistry, "stale");
+        this.expiredHits = lookupCounter(meterRegistry, "expired");
+        this.pendingHits = lookupCounter(meterRegistry, "pending");
+        this.misses = lookupCounter(meterRegistry, "miss");
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("instagram.discovery.cache.lookups")
+                .description("Business discovery cache lookups by freshness of the entry found")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the result for the key, loading it with the given loader when missing or too stale.
+     * The entry carries the time the result was fetched, which is older than fresh-ttl when a
+     * stale result is served, and is marked fetched only for the lookup that called the loader.
+     */
+    public Mono<CachedDiscovery> get(DiscoveryKey key, Supplier<Mono<BusinessDiscoveryDto>> loader) {
+        return Mono.defer(() -> {
+            CompletableFuture<CachedDiscovery> cached = cache.getIfPresent(key);
+            if (cached == null) {
+                misses.increment();
+                return load(key, loader);
+            }
+            if (!cached.isDone()) {
+                pendingHits.increment();
+                // Another caller is already loading this key
+                return Mono.fromFuture(cached, true);
+            }
+
+            CachedDiscovery entry = cached.getNow(null);
+            if (entry == null || cached.isCompletedExceptionally()) {
+                misses.increment();
+                return load(key, loader);
+            }
+            if (entry.isYoungerThan(freshTtl)) {
+                freshHits.increment();
+                log.debug("Business discovery cache hit for {}", key);
+                return Mono.just(entry);
+            }
+            if (entry.isYoungerThan(freshTtl.plus(staleWhileRevalidate))) {
+                staleHits.increment();
+                log.debug("Serving stale business discovery for {} while refreshing", key);
+                refresh(key, loader).subscribe(
+                        refreshed -> log.debug("Refreshed business discovery cache for {}", key),
+                        error -> log.warn("Background refresh failed for {}: {}", key, error.getMessage()));
+                return Mono.just(entry);
+            }
+
+            expiredHits.increment();
+            return refresh(key, loader)
+                    .map(CachedDiscovery::asFetched)
+                    .onErrorResume(error -> {
+                        log.warn("Graph API failed for {}, serving stale result: {}", key, error.getMessage());
+                        return Mono.just(entry);
+                    });
+        });
+    }
+
+    /**
+     * Get the result for the key only if it is still fresh
+     */
+    public BusinessDiscoveryDto getIfFresh(DiscoveryKey key) {
+        CachedDiscovery entry = getFreshEntry(key);
+        return entry != null ? entry.result() : null;
+    }
+
+    /**
+     * Get the entry for the key only if it is still fresh
+     */
+    public CachedDiscovery getFreshEntry(DiscoveryKey key) {
+        CompletableFuture<CachedDiscovery> cached = cache.getIfPresent(key);
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return null;
+        }
+        CachedDiscovery entry = cached.getNow(null);
+        return entry != null && entry.isYoungerThan(freshTtl) ? entry : null;
+    }
+
+    /**
+     * Load the result for the key now, whatever the age of the cached entry, and replace it
+     */
+    public Mono<BusinessDiscoveryDto> reload(DiscoveryKey key, Supplier<Mono<BusinessDiscoveryDto>> loader) {
+        return Mono.defer(() -> refresh(key, loader)).map(CachedDiscovery::result);
+    }
+
+    /**
+     * Store an already resolved result, e.g. one read from the latest result table
+     */
+    public void put(DiscoveryKey key, CachedDiscovery entry) {
+        cache.put(key, CompletableFuture.completedFuture(entry));
+    }
+
+    private Mono<CachedDiscovery> load(DiscoveryKey key, Supplier<Mono<BusinessDiscoveryDto>> loader) {
+        return Mono.defer(() -> {
+            CompletableFuture<CachedDiscovery> promise = new CompletableFuture<>();
+            CompletableFuture<CachedDiscovery> future = cache.get(key, (k, executor) -> promise);
+            if (future == promise) {
+                // Start the load only once the key is claimed. Subscribing inside the mapping function
+                // would run it under the cache's bin lock and pin the carrier of a virtual thread.
+                Mono.defer(loader)
+                        .map(CachedDiscovery::now)
+                        .subscribe(promise::complete, promise::completeExceptionally, () -> promise.complete(null));
+            }
+            Mono<CachedDiscovery> loaded = Mono.fromFuture(future, true);
+            return future == promise ? loaded.map(CachedDiscovery::asFetched) : loaded;
+        });
+    }
+
+    private Mono<CachedDiscovery> refresh(DiscoveryKey key, Supplier<Mono<BusinessDiscoveryDto>> loader) {
+        return loader.get()
+                .map(CachedDiscovery::now)
+                .doOnNext(entry -> put(key, entry));
+    }
+}
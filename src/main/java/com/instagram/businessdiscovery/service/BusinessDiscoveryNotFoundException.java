@@ -0,0 +1,26 @@
+package com.instagram.businessdiscovery.service;
+
+/**
+ * Graph API has no business discovery data for the target. Unlike transient failures, asking
+ * again soon gives the same answer, so these are kept in the NegativeDiscoveryCache.
+ */
+public class BusinessDiscoveryNotFoundException extends RuntimeException {
+
+    public enum Reason {
+        /** Graph API cannot find the username; it reports personal accounts this way too */
+        NOT_FOUND,
+        /** Graph API answered without business discovery data */
+        NOT_BUSINESS_ACCOUNT
+    }
+
+    private final Reason reason;
+
+    public BusinessDiscoveryNotFoundException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
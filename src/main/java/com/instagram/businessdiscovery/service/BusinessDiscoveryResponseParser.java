@@ -0,0 +1,241 @@
+package com.instagram.businessdiscovery.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming decoder for Graph API business discovery responses. Reads business_discovery
+ * and media.data straight into DTOs in a single pass without building a JsonNode tree;
+ * per-post engagement and account insights are accumulated while posts are read.
+ */
+@Component
+public class BusinessDiscoveryResponseParser {
+
+    private static final Duration RECENT_WINDOW = Duration.ofDays(30);
+    private static final int UNKNOWN_USER_ERROR_CODE = 110;
+
+    private final JsonFactory jsonFactory;
+    private final Clock clock;
+
+    @Autowired
+    public BusinessDiscoveryResponseParser(ObjectMapper objectMapper) {
+        this(objectMapper, Clock.systemUTC());
+    }
+
+    BusinessDiscoveryResponseParser(ObjectMapper objectMapper, Clock clock) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.clock = clock;
+    }
+
+    /**
+     * Parse a response body. Returns null when it has no business_discovery object.
+     */
+    public BusinessDiscoveryDto parse(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    public BusinessDiscoveryDto parse(byte[] body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    /**
+     * Parse one page of a paginated media fetch. Returns null when it has no business_discovery object.
+     */
+    public MediaPage parseMediaPage(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            Discovery discovery = readResponse(parser);
+            if (discovery == null) {
+                return null;
+            }
+            List<BusinessDiscoveryDto.MediaInsightDto> posts = discovery.media != null ? discovery.media.posts : List.of();
+            return new MediaPage(discovery.dto.getFollowersCount(), posts,
+                    discovery.media != null ? discovery.media.after : null);
+        }
+    }
+
+    /**
+     * Whether a Graph API error body says the business discovery target cannot be found
+     * (code 110, "Invalid user id"), as opposed to a failure worth retrying later
+     */
+    public boolean isUnknownUserError(byte[] errorBody) {
+        if (errorBody == null || errorBody.length == 0) {
+            return false;
+        }
+        try (JsonParser parser = jsonFactory.createParser(errorBody)) {
+            JsonNode error = parser.<JsonNode>readValueAsTree();
+            return error != null && error.path("error").path("code").asInt() == UNKNOWN_USER_ERROR_CODE;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private BusinessDiscoveryDto parse(JsonParser parser) throws IOException {
+        Discovery discovery = readResponse(parser);
+        return discovery != null ? discovery.dto : null;
+    }
+
+    private Discovery readResponse(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        Discovery discovery = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("business_discovery".equals(field) && value == JsonToken.START_OBJECT) {
+                discovery = readBusinessDiscovery(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return discovery;
+    }
+
+    private Discovery readBusinessDiscovery(JsonParser parser) throws IOException {
+        BusinessDiscoveryDto dto = new BusinessDiscoveryDto();
+        MediaSection media = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> dto.setId(text(parser, value));
+                case "username" -> dto.setUsername(text(parser, value));
+                case "name" -> dto.setName(text(parser, value));
+                case "biography" -> dto.setBiography(text(parser, value));
+                case "followers_count" -> dto.setFollowersCount(integer(parser, value));
+                case "follows_count" -> dto.setFollowsCount(integer(parser, value));
+                case "media_count" -> dto.setMediaCount(integer(parser, value));
+                case "profile_picture_url" -> dto.setProfilePictureUrl(text(parser, value));
+                case "website" -> dto.setWebsite(text(parser, value));
+                case "media" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        media = readMedia(parser, dto.getFollowersCount());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (media != null && media.insights != null) {
+            // followers_count normally precedes media; fill in rates if it arrived afterwards
+            media.insights.rateLate(media.posts, dto.getFollowersCount());
+            dto.setRecentMedia(media.posts);
+            dto.setInsights(media.insights.toDto());
+        }
+        return new Discovery(dto, media);
+    }
+
+    private MediaSection readMedia(JsonParser parser, Integer followersCount) throws IOException {
+        MediaSection media = new MediaSection();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+                media.insights = new EngagementAnalytics(followersCount, clock.instant().minus(RECENT_WINDOW));
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    BusinessDiscoveryDto.MediaInsightDto post = readPost(parser);
+                    media.insights.add(post);
+                    media.posts.add(post);
+                }
+            } else if ("paging".equals(field) && value == JsonToken.START_OBJECT) {
+                media.after = readAfterCursor(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return media;
+    }
+
+    /**
+     * Read paging.cursors.after, but only when paging.next says there is another page
+     */
+    private static String readAfterCursor(JsonParser parser) throws IOException {
+        String after = null;
+        boolean hasNext = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("cursors".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String cursor = parser.currentName();
+                    JsonToken cursorValue = parser.nextToken();
+                    if ("after".equals(cursor)) {
+                        after = text(parser, cursorValue);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if ("next".equals(field)) {
+                hasNext = text(parser, value) != null;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return hasNext ? after : null;
+    }
+
+    private BusinessDiscoveryDto.MediaInsightDto readPost(JsonParser parser) throws IOException {
+        BusinessDiscoveryDto.MediaInsightDto post = new BusinessDiscoveryDto.MediaInsightDto();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "id" -> post.setId(text(parser, value));
+                case "media_url" -> post.setMediaUrl(text(parser, value));
+                case "media_type" -> post.setMediaType(text(parser, value));
+                case "caption" -> post.setCaption(text(parser, value));
+                case "like_count" -> post.setLikeCount(integer(parser, value));
+                case "comments_count" -> post.setCommentsCount(integer(parser, value));
+                case "timestamp" -> post.setTimestamp(text(parser, value));
+                case "permalink" -> post.setPermalink(text(parser, value));
+                default -> parser.skipChildren();
+            }
+        }
+        return post;
+    }
+
+    private static String text(JsonParser parser, JsonToken value) throws IOException {
+        if (value.isScalarValue()) {
+            return value == JsonToken.VALUE_NULL ? null : parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static Integer integer(JsonParser parser, JsonToken value) throws IOException {
+        if (value.isScalarValue()) {
+            return value == JsonToken.VALUE_NULL ? null : parser.getValueAsInt();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private record Discovery(BusinessDiscoveryDto dto, MediaSection media) {
+    }
+
+    private static final class MediaSection {
+        private final List<BusinessDiscoveryDto.MediaInsightDto> posts = new ArrayList<>();
+        private EngagementAnalytics insights;
+        private String after;
+    }
+}
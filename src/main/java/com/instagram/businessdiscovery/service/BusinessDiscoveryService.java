@@ -1,33 +1,73 @@
 package com.instagram.businessdiscovery.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.instagram.businessdiscovery.domain.BusinessDiscoverySearch;
 import com.instagram.businessdiscovery.domain.User;
+import com.instagram.businessdiscovery.dto.BatchSearchResultDto;
 import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.dto.SearchHistoryItemDto;
+import com.instagram.businessdiscovery.dto.SearchHistoryPageDto;
 import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BusinessDiscoveryService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final BusinessDiscoverySearchRepository searchRepository;
+    private final SearchResultWriter searchResultWriter;
     private final InstagramApiService instagramApiService;
-    private final ObjectMapper objectMapper;
+    private final BusinessDiscoveryCache discoveryCache;
+    private final NegativeDiscoveryCache negativeCache;
+    private final LatestResultStore latestResultStore;
+    private final SearchRateLimiter rateLimiter;
+    private final UserSearchStatsService statsService;
+    private final AccountMetricsService accountMetricsService;
+    private final SearchResultCodecs codecs;
+    private final Scheduler jpaScheduler;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlightSearches = new AtomicInteger();
+
+    @Value("${instagram.api.business-discovery.batch.concurrency:8}")
+    private int batchConcurrency;
+
+    @Value("${instagram.api.business-discovery.media-stream.page-size:50}")
+    private int mediaPageSize;
+
+    @Value("${instagram.api.business-discovery.media-stream.max-posts:1000}")
+    private int maxStreamedPosts;
+
+    @Value("${instagram.api.business-discovery.media-stream.max-horizon:90d}")
+    private Duration maxMediaHorizon;
 
-    @Value("${instagram.api.business-discovery.rate-limit:200}")
-    private int hourlyRateLimit;
+    @PostConstruct
+    void registerMetrics() {
+        meterRegistry.gauge("instagram.search.in-flight", inFlightSearches);
+    }
 
     /**
      * Perform business discovery search for a target username
@@ -36,34 +76,181 @@ public class BusinessDiscoveryService {
     public Mono<BusinessDiscoveryDto> searchBusinessAccount(User searcherUser, String targetUsername, boolean includeMedia) {
         log.info("User {} searching for business account: {}", searcherUser.getUsername(), targetUsername);
         
-        // Check rate limiting
-        return checkRateLimit(searcherUser)
+        // Check known missing targets and rate limiting
+        return checkSearchAllowed(searcherUser, targetUsername)
                 .flatMap(allowed -> {
                     if (!allowed) {
-                        return Mono.error(new RuntimeException("Rate limit exceeded. Maximum " + hourlyRateLimit + " searches per hour."));
+                        return Mono.error(new RuntimeException("Rate limit exceeded. Maximum " + rateLimiter.getHourlyRateLimit() + " searches per hour."));
                     }
                     
                     // Perform the search
-                    Mono<BusinessDiscoveryDto> searchMono = includeMedia ?
+                    Mono<CachedDiscovery> searchMono = includeMedia ?
                             instagramApiService.getBusinessDiscoveryWithMedia(searcherUser.getInstagramId(), targetUsername, searcherUser.getAccessToken()) :
                             instagramApiService.getBusinessDiscovery(searcherUser.getInstagramId(), targetUsername, searcherUser.getAccessToken());
                     
                     return searchMono
-                            .flatMap(result -> saveSearchResult(searcherUser, targetUsername, result, BusinessDiscoverySearch.SearchStatus.SUCCESS, null))
+                            .flatMap(discovery -> saveSearchResult(searcherUser, targetUsername, includeMedia, discovery, BusinessDiscoverySearch.SearchStatus.SUCCESS, null))
                             .onErrorResume(error -> {
                                 log.error("Business discovery failed for target {}: {}", targetUsername, error.getMessage());
-                                return saveSearchResult(searcherUser, targetUsername, null, BusinessDiscoverySearch.SearchStatus.FAILED, error.getMessage())
+                                negativeCache.record(targetUsername, error);
+                                return saveSearchResult(searcherUser, targetUsername, includeMedia, null, BusinessDiscoverySearch.SearchStatus.FAILED, error.getMessage())
                                         .then(Mono.error(error));
                             });
                 });
     }
 
     /**
-     * Get search history for a user
+     * Perform business discovery for several target usernames at once.
+     * Results are emitted as soon as each lookup completes; a failed lookup
+     * is reported as a FAILED item and does not stop the rest of the batch.
+     */
+    public Flux<BatchSearchResultDto> searchBusinessAccounts(User searcherUser, List<String> targetUsernames, boolean includeMedia) {
+        log.info("User {} starting batch business discovery for {} targets", searcherUser.getUsername(), targetUsernames.size());
+
+        return Flux.fromIterable(targetUsernames)
+                .map(String::trim)
+                .filter(targetUsername -> !targetUsername.isEmpty())
+                .distinct()
+                .flatMap(targetUsername -> searchOrGetCached(searcherUser, targetUsername, includeMedia)
+                        .map(result -> BatchSearchResultDto.builder()
+                                .targetUsername(targetUsername)
+                                .status(BatchSearchResultDto.Status.SUCCESS)
+                                .result(result)
+                                .build())
+                        .onErrorResume(error -> Mono.just(BatchSearchResultDto.builder()
+                                .targetUsername(targetUsername)
+                                .status(BatchSearchResultDto.Status.FAILED)
+                                .error(error.getMessage())
+                                .build())), batchConcurrency);
+    }
+
+    /**
+     * Stream the target's posts newest first, up to maxPosts or back to the horizon, whichever
+     * comes first. Pages are fetched as the caller consumes them, so taking fewer posts costs
+     * fewer Graph API calls. Counts as one search against the rate limit.
+     */
+    public Flux<BusinessDiscoveryDto.MediaInsightDto> streamMedia(User searcherUser, String targetUsername,
+                                                                  int maxPosts, Duration horizon) {
+        // Prefetch of one page: the next page is requested once the current one is drained
+        return limitedMediaPages(searcherUser, targetUsername, maxPosts, horizon)
+                .concatMapIterable(MediaPage::posts, 1);
+    }
+
+    /**
+     * Running account insights over the same stream as streamMedia, one update per page
+     */
+    public Flux<BusinessDiscoveryDto.AccountInsightsDto> streamInsights(User searcherUser, String targetUsername,
+                                                                        int maxPosts, Duration horizon) {
+        return Flux.defer(() -> {
+            Instant recentCutoff = Instant.now().minus(Duration.ofDays(30));
+            AtomicReference<EngagementAnalytics> insights = new AtomicReference<>();
+            return limitedMediaPages(searcherUser, targetUsername, maxPosts, horizon)
+                    .mapNotNull(page -> {
+                        if (insights.get() == null) {
+                            insights.set(new EngagementAnalytics(page.followersCount(), recentCutoff));
+                        }
+                        page.posts().forEach(insights.get()::add);
+                        return insights.get().toDto();
+                    });
+        });
+    }
+
+    /**
+     * Media pages trimmed to the post count and date horizon; the stream completes, and stops
+     * fetching, at the first post past either limit.
+     */
+    private Flux<MediaPage> limitedMediaPages(User searcherUser, String targetUsername, int maxPosts, Duration horizon) {
+        int postLimit = Math.max(1, Math.min(maxPosts, maxStreamedPosts));
+        Duration window = horizon.compareTo(maxMediaHorizon) > 0 ? maxMediaHorizon : horizon;
+
+        return checkSearchAllowed(searcherUser, targetUsername)
+                .flatMapMany(allowed -> {
+                    if (!allowed) {
+                        return Flux.error(new RuntimeException("Rate limit exceeded. Maximum " + rateLimiter.getHourlyRateLimit() + " searches per hour."));
+                    }
+                    long cutoff = Instant.now().minus(window).getEpochSecond();
+                    AtomicInteger remaining = new AtomicInteger(postLimit);
+                    return instagramApiService.getMediaPages(searcherUser.getInstagramId(), targetUsername,
+                                    searcherUser.getAccessToken(), Math.min(mediaPageSize, postLimit))
+                            .map(page -> {
+                                List<BusinessDiscoveryDto.MediaInsightDto> kept = new ArrayList<>(page.posts().size());
+                                for (BusinessDiscoveryDto.MediaInsightDto post : page.posts()) {
+                                    long published = EngagementAnalytics.epochSecond(post.getTimestamp());
+                                    if (remaining.get() == 0 || (published != EngagementAnalytics.NO_TIMESTAMP && published < cutoff)) {
+                                        // Dropping the cursor marks this as the last page
+                                        return new MediaPage(page.followersCount(), kept, null);
+                                    }
+                                    kept.add(post);
+                                    remaining.decrementAndGet();
+                                }
+                                return new MediaPage(page.followersCount(), kept, remaining.get() == 0 ? null : page.after());
+                            })
+                            .takeUntil(page -> page.after() == null)
+                            .doOnError(error -> negativeCache.record(targetUsername, error));
+                });
+    }
+
+    /**
+     * Return a fresh cached result if there is one, otherwise perform the search.
+     * Database work runs on the JPA scheduler, so the caller's thread is never blocked.
+     */
+    public Mono<BusinessDiscoveryDto> searchOrGetCached(User searcherUser, String targetUsername, boolean includeMedia) {
+        return Mono.fromCallable(() -> getCachedResult(searcherUser, targetUsername, includeMedia))
+                .subscribeOn(jpaScheduler)
+                .flatMap(cached -> cached
+                        .map(Mono::just)
+                        .orElseGet(() -> searchBusinessAccount(searcherUser, targetUsername, includeMedia)))
+                .switchIfEmpty(Mono.error(new RuntimeException("No data found for the specified username")))
+                .doOnSubscribe(subscription -> inFlightSearches.incrementAndGet())
+                .doFinally(signal -> inFlightSearches.decrementAndGet());
+    }
+
+    /**
+     * Get one page of a user's search history, newest first. Pages are addressed by a
+     * (created_at, id) cursor, so every page costs the same no matter how deep it is.
+     */
+    @Transactional(readOnly = true)
+    public SearchHistoryPageDto getSearchHistoryPage(User user, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        // Fetch one extra row to find out whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<SearchHistoryItemDto> items;
+        if (cursor == null || cursor.isBlank()) {
+            items = searchRepository.findHistoryFirstPage(user.getId(), limit);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            items = searchRepository.findHistoryPageAfter(user.getId(), position.createdAt(), position.id(), limit);
+        }
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            SearchHistoryItemDto last = items.get(pageSize - 1);
+            nextCursor = new HistoryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return SearchHistoryPageDto.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Get the stored result of one of the user's searches
      */
     @Transactional(readOnly = true)
-    public List<BusinessDiscoverySearch> getSearchHistory(User user) {
-        return searchRepository.findBySearcherUserOrderByCreatedAtDesc(user);
+    public Optional<BusinessDiscoveryDto> getSearchResult(User user, Long searchId) {
+        return searchRepository.findById(searchId)
+                .filter(search -> search.getSearcherUser().getId().equals(user.getId()))
+                .flatMap(search -> {
+                    try {
+                        return Optional.ofNullable(codecs.decode(search.getSearchResultData(), search.getSearchResult()));
+                    } catch (IOException e) {
+                        log.warn("Failed to deserialize stored result for search: {}", searchId);
+                        return Optional.empty();
+                    }
+                });
     }
 
     /**
@@ -84,104 +271,157 @@ public class BusinessDiscoveryService {
     }
 
     /**
-     * Check if user has exceeded rate limit
+     * Fail with the cached answer when the target is known to have no business discovery data,
+     * so it costs neither a search slot nor a Graph API call; otherwise check the rate limit
+     */
+    private Mono<Boolean> checkSearchAllowed(User user, String targetUsername) {
+        return Mono.defer(() -> {
+            BusinessDiscoveryNotFoundException knownMissing = negativeCache.find(targetUsername);
+            if (knownMissing != null) {
+                log.debug("Target {} is in the negative cache: {}", targetUsername, knownMissing.getReason());
+                return Mono.error(knownMissing);
+            }
+            return checkRateLimit(user);
+        });
+    }
+
+    /**
+     * Check if user has exceeded rate limit, taking a search slot if not
      */
     private Mono<Boolean> checkRateLimit(User user) {
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        Long searchCount = searchRepository.countSearchesByUserSince(user, oneHourAgo);
-        
-        boolean allowed = searchCount < hourlyRateLimit;
-        log.debug("Rate limit check for user {}: {}/{} searches in last hour", 
-                user.getUsername(), searchCount, hourlyRateLimit);
-        
-        return Mono.just(allowed);
+        return Mono.fromCallable(() -> {
+            boolean allowed = rateLimiter.tryAcquire(user.getId());
+            if (!allowed) {
+                meterRegistry.counter("instagram.search.rate-limited").increment();
+            }
+            log.debug("Rate limit check for user {}: allowed={}, {} searches remaining",
+                    user.getUsername(), allowed, rateLimiter.remaining(user.getId()));
+            return allowed;
+        });
     }
 
     /**
      * Save search result to database
      */
-    private Mono<BusinessDiscoveryDto> saveSearchResult(User searcherUser, String targetUsername, 
-                                                       BusinessDiscoveryDto result, 
+    private Mono<BusinessDiscoveryDto> saveSearchResult(User searcherUser, String targetUsername, boolean includeMedia,
+                                                       CachedDiscovery discovery, 
                                                        BusinessDiscoverySearch.SearchStatus status, 
                                                        String errorMessage) {
+        return Mono.fromCallable(() -> meterRegistry.timer("instagram.search.persist", "status", status.name())
+                        .record(() -> persistSearchResult(searcherUser, targetUsername, includeMedia, discovery, status, errorMessage)))
+                .subscribeOn(jpaScheduler)
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    private Optional<BusinessDiscoveryDto> persistSearchResult(User searcherUser, String targetUsername, boolean includeMedia,
+                                                               CachedDiscovery discovery,
+                                                               BusinessDiscoverySearch.SearchStatus status,
+                                                               String errorMessage) {
+        BusinessDiscoveryDto result = discovery != null ? discovery.result() : null;
         try {
+            LocalDateTime searchedAt = LocalDateTime.now();
             BusinessDiscoverySearch search = BusinessDiscoverySearch.builder()
                     .searcherUser(searcherUser)
                     .targetUsername(targetUsername)
                     .searchStatus(status)
                     .errorMessage(errorMessage)
+                    .createdAt(searchedAt)
                     .build();
 
             if (result != null) {
+                // Only a Graph API fetch adds a sample, dated by the fetch; cached results are
+                // compared against the samples already taken
+                Double followerGrowthRate = discovery.fetched()
+                        ? accountMetricsService.record(result, discovery.fetchedAtLocal())
+                        : accountMetricsService.followerGrowthRate(result, discovery.fetchedAtLocal());
+                if (followerGrowthRate != null && result.getInsights() != null) {
+                    // The cached result is shared by every caller, so the growth is set on a copy
+                    result = result.toBuilder()
+                            .insights(result.getInsights().toBuilder().followerGrowthRate(followerGrowthRate).build())
+                            .build();
+                    discovery = discovery.withResult(result);
+                }
                 search.setTargetInstagramId(result.getId());
-                search.setSearchResult(objectMapper.writeValueAsString(result));
+                search.setSearchResultData(codecs.encode(result));
             }
 
-            searchRepository.save(search);
-            log.debug("Saved search result for target: {} with status: {}", targetUsername, status);
+            // Row, statistics and latest shared result are written behind, in batches
+            searchResultWriter.submit(search, DiscoveryKey.of(targetUsername, includeMedia), discovery);
+            log.debug("Queued search result for target: {} with status: {}", targetUsername, status);
             
-            return result != null ? Mono.just(result) : Mono.empty();
+            return Optional.ofNullable(result);
             
-        } catch (JsonProcessingException e) {
+        } catch (IOException e) {
             log.error("Failed to serialize search result: {}", e.getMessage());
-            return Mono.just(result);
+            return Optional.ofNullable(result);
         }
     }
 
     /**
-     * Get cached search result if available and recent
+     * Get cached search result if available and recent. Looks in the in-memory cache first,
+     * then in the latest result table shared by all searchers.
      */
     @Transactional(readOnly = true)
-    public Optional<BusinessDiscoveryDto> getCachedResult(User searcherUser, String targetUsername) {
-        Optional<BusinessDiscoverySearch> recentSearch = searchRepository
-                .findBySearcherUserAndTargetUsername(searcherUser, targetUsername);
-        
-        if (recentSearch.isPresent()) {
-            BusinessDiscoverySearch search = recentSearch.get();
-            
-            // Check if result is recent (less than 1 hour old) and successful
-            if (search.getSearchStatus() == BusinessDiscoverySearch.SearchStatus.SUCCESS &&
-                search.getCreatedAt().isAfter(LocalDateTime.now().minusHours(1)) &&
-                search.getSearchResult() != null) {
-                
-                try {
-                    BusinessDiscoveryDto result = objectMapper.readValue(search.getSearchResult(), BusinessDiscoveryDto.class);
-                    log.debug("Returning cached result for target: {}", targetUsername);
-                    return Optional.of(result);
-                } catch (JsonProcessingException e) {
-                    log.warn("Failed to deserialize cached result for target: {}", targetUsername);
-                }
+    public Optional<BusinessDiscoveryDto> getCachedResult(User searcherUser, String targetUsername, boolean includeMedia) {
+        DiscoveryKey key = DiscoveryKey.of(targetUsername, includeMedia);
+        // A result fetched with media is a superset of the plain profile
+        List<DiscoveryKey> candidates = includeMedia ? List.of(key) : List.of(key, DiscoveryKey.of(targetUsername, true));
+
+        for (DiscoveryKey candidate : candidates) {
+            BusinessDiscoveryDto cached = discoveryCache.getIfFresh(candidate);
+            if (cached != null) {
+                log.debug("Returning in-memory cached result for target: {}", targetUsername);
+                return Optional.of(cached);
             }
         }
-        
+
+        for (DiscoveryKey candidate : candidates) {
+            Optional<CachedDiscovery> latest = latestResultStore.find(candidate);
+            if (latest.isPresent()) {
+                log.debug("Returning shared cached result for target {} to user {}", targetUsername, searcherUser.getUsername());
+                discoveryCache.put(candidate, latest.get());
+                return Optional.of(latest.get().result());
+            }
+        }
+
         return Optional.empty();
     }
 
     /**
      * Get search statistics for a user
      */
-    @Transactional(readOnly = true)
     public SearchStatistics getSearchStatistics(User user) {
-        List<BusinessDiscoverySearch> allSearches = searchRepository.findBySearcherUserOrderByCreatedAtDesc(user);
-        
-        long totalSearches = allSearches.size();
-        long successfulSearches = allSearches.stream()
-                .filter(search -> search.getSearchStatus() == BusinessDiscoverySearch.SearchStatus.SUCCESS)
-                .count();
-        long failedSearches = totalSearches - successfulSearches;
-        
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        long recentSearches = searchRepository.countSearchesByUserSince(user, oneHourAgo);
+        UserSearchStatsService.SearchTotals totals = statsService.getTotals(user.getId());
         
         return SearchStatistics.builder()
-                .totalSearches(totalSearches)
-                .successfulSearches(successfulSearches)
-                .failedSearches(failedSearches)
-                .recentSearches(recentSearches)
-                .remainingSearches(Math.max(0, hourlyRateLimit - recentSearches))
+                .totalSearches(totals.totalSearches())
+                .successfulSearches(totals.successfulSearches())
+                .failedSearches(totals.failedSearches())
+                .recentSearches(rateLimiter.countRecent(user.getId()))
+                .remainingSearches(rateLimiter.remaining(user.getId()))
+                .lastSearchAt(totals.lastSearchAt())
                 .build();
     }
 
+    private record HistoryCursor(LocalDateTime createdAt, Long id) {
+
+        String encode() {
+            String position = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = position.lastIndexOf('|');
+                return new HistoryCursor(LocalDateTime.parse(position.substring(0, separator)),
+                        Long.parseLong(position.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid history cursor");
+            }
+        }
+    }
+
     @lombok.Data
     @lombok.Builder
     public static class SearchStatistics {
@@ -190,5 +430,6 @@ public class BusinessDiscoveryService {
         private long failedSearches;
         private long recentSearches;
         private long remainingSearches;
+        private LocalDateTime lastSearchAt;
     }
 }
\ No newline at end of file
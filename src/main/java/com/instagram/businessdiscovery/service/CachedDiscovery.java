@@ -0,0 +1,46 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * A resolved business discovery result together with the time it was fetched from Graph API.
+ * fetched is set only on the copy handed to the lookup that made the Graph API call, never on
+ * cached entries, so a fetch is recorded once however many callers share it.
+ */
+public record CachedDiscovery(BusinessDiscoveryDto result, Instant fetchedAt, boolean fetched) {
+
+    public CachedDiscovery(BusinessDiscoveryDto result, Instant fetchedAt) {
+        this(result, fetchedAt, false);
+    }
+
+    public static CachedDiscovery now(BusinessDiscoveryDto result) {
+        return new CachedDiscovery(result, Instant.now());
+    }
+
+    public CachedDiscovery asFetched() {
+        return new CachedDiscovery(result, fetchedAt, true);
+    }
+
+    /**
+     * The same entry with another result, e.g. a copy with derived fields set
+     */
+    public CachedDiscovery withResult(BusinessDiscoveryDto otherResult) {
+        return new CachedDiscovery(otherResult, fetchedAt, fetched);
+    }
+
+    /**
+     * Fetch time in the local time zone, as stored in the database
+     */
+    public LocalDateTime fetchedAtLocal() {
+        return LocalDateTime.ofInstant(fetchedAt, ZoneId.systemDefault());
+    }
+
+    public boolean isYoungerThan(Duration age) {
+        return fetchedAt.plus(age).isAfter(Instant.now());
+    }
+}
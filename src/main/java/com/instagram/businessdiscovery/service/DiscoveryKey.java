@@ -0,0 +1,22 @@
+package com.instagram.businessdiscovery.service;
+
+import java.util.Locale;
+
+/**
+ * Identity of a business discovery lookup: Instagram usernames are case-insensitive
+ * and users often type them with a leading '@', so both are normalized away.
+ */
+public record DiscoveryKey(String username, boolean includeMedia) {
+
+    public static DiscoveryKey of(String targetUsername, boolean includeMedia) {
+        return new DiscoveryKey(normalizeUsername(targetUsername), includeMedia);
+    }
+
+    public static String normalizeUsername(String targetUsername) {
+        String username = targetUsername.trim();
+        if (username.startsWith("@")) {
+            username = username.substring(1);
+        }
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,302 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+
+import java.time.Instant;
+import java.time.Month;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass engagement analytics over the posts seen so far. Every post is read once into
+ * primitive totals, per media type arrays, two P² quantile sketches and a bounded top-N heap,
+ * so memory stays constant and the engine can follow a media stream of any length.
+ */
+public final class EngagementAnalytics {
+
+    /**
+     * Returned by {@link #epochSecond(String)} for a missing or unparseable timestamp
+     */
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    static final int TOP_POSTS = 5;
+
+    private static final DateTimeFormatter GRAPH_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+    private static final String[] MEDIA_TYPES = {"IMAGE", "VIDEO", "CAROUSEL_ALBUM", "OTHER"};
+    private static final int OTHER = 3;
+
+    private final long recentCutoff;
+    private Integer followersCount;
+    private int posts;
+    private int recentPosts;
+    private long totalLikes;
+    private long totalComments;
+    private double engagementRateSum;
+    private int ratedPosts;
+
+    private int datedPosts;
+    private long firstPublished = Long.MAX_VALUE;
+    private long lastPublished = Long.MIN_VALUE;
+
+    private final P2Quantile medianRate = new P2Quantile(0.5);
+    private final P2Quantile p90Rate = new P2Quantile(0.9);
+
+    private final int[] typePosts = new int[MEDIA_TYPES.length];
+    private final long[] typeEngagement = new long[MEDIA_TYPES.length];
+    private final double[] typeRateSum = new double[MEDIA_TYPES.length];
+
+    // Min-heap on engagement, so the root is the weakest of the current top posts
+    private final long[] topEngagement = new long[TOP_POSTS];
+    private final BusinessDiscoveryDto.MediaInsightDto[] topPosts = new BusinessDiscoveryDto.MediaInsightDto[TOP_POSTS];
+    private int topSize;
+
+    /**
+     * @param recentCutoff posts published at or after it are counted as posts of the last 30 days
+     */
+    public EngagementAnalytics(Integer followersCount, Instant recentCutoff) {
+        this.followersCount = followersCount;
+        this.recentCutoff = recentCutoff.getEpochSecond();
+    }
+
+    /**
+     * Account insights over a complete media list
+     */
+    public static BusinessDiscoveryDto.AccountInsightsDto of(List<BusinessDiscoveryDto.MediaInsightDto> media,
+                                                            Integer followersCount, Instant recentCutoff) {
+        EngagementAnalytics analytics = new EngagementAnalytics(followersCount, recentCutoff);
+        for (BusinessDiscoveryDto.MediaInsightDto post : media) {
+            analytics.add(post);
+        }
+        return analytics.toDto();
+    }
+
+    public void add(BusinessDiscoveryDto.MediaInsightDto post) {
+        Integer likeCount = post.getLikeCount();
+        Integer commentsCount = post.getCommentsCount();
+        int likes = likeCount != null ? likeCount : 0;
+        int comments = commentsCount != null ? commentsCount : 0;
+        int engagement = likes + comments;
+        totalLikes += likes;
+        totalComments += comments;
+        posts++;
+
+        long published = epochSecond(post.getTimestamp());
+        if (published != NO_TIMESTAMP) {
+            datedPosts++;
+            firstPublished = Math.min(firstPublished, published);
+            lastPublished = Math.max(lastPublished, published);
+            if (published >= recentCutoff) {
+                recentPosts++;
+            }
+        }
+
+        int type = typeIndex(post.getMediaType());
+        typePosts[type]++;
+        typeEngagement[type] += engagement;
+        offerTop(engagement, post);
+
+        if (followersCount != null && followersCount > 0) {
+            rate(post, engagement, type, followersCount);
+        }
+    }
+
+    /**
+     * Rate already added posts once the follower count is known, e.g. when it followed media in the response
+     */
+    void rateLate(List<BusinessDiscoveryDto.MediaInsightDto> added, Integer finalFollowersCount) {
+        if (followersCount != null || finalFollowersCount == null || finalFollowersCount <= 0) {
+            return;
+        }
+        followersCount = finalFollowersCount;
+        for (BusinessDiscoveryDto.MediaInsightDto post : added) {
+            int likes = post.getLikeCount() != null ? post.getLikeCount() : 0;
+            int comments = post.getCommentsCount() != null ? post.getCommentsCount() : 0;
+            rate(post, likes + comments, typeIndex(post.getMediaType()), finalFollowersCount);
+        }
+    }
+
+    private void rate(BusinessDiscoveryDto.MediaInsightDto post, int engagement, int type, int followers) {
+        double engagementRate = (double) engagement / followers * 100;
+        post.setEngagementRate(engagementRate);
+        engagementRateSum += engagementRate;
+        ratedPosts++;
+        typeRateSum[type] += engagementRate;
+        medianRate.add(engagementRate);
+        p90Rate.add(engagementRate);
+    }
+
+    private void offerTop(long engagement, BusinessDiscoveryDto.MediaInsightDto post) {
+        if (topSize < TOP_POSTS) {
+            // Sift up
+            int i = topSize++;
+            while (i > 0 && topEngagement[(i - 1) / 2] > engagement) {
+                int parent = (i - 1) / 2;
+                topEngagement[i] = topEngagement[parent];
+                topPosts[i] = topPosts[parent];
+                i = parent;
+            }
+            topEngagement[i] = engagement;
+            topPosts[i] = post;
+        } else if (engagement > topEngagement[0]) {
+            siftDown(topEngagement, topPosts, topSize, engagement, post);
+        }
+    }
+
+    /**
+     * Replace the root of the min-heap and restore heap order
+     */
+    private static void siftDown(long[] engagement, BusinessDiscoveryDto.MediaInsightDto[] posts, int size,
+                                 long value, BusinessDiscoveryDto.MediaInsightDto post) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && engagement[child + 1] < engagement[child]) {
+                child++;
+            }
+            if (engagement[child] >= value) {
+                break;
+            }
+            engagement[i] = engagement[child];
+            posts[i] = posts[child];
+            i = child;
+        }
+        engagement[i] = value;
+        posts[i] = post;
+    }
+
+    public BusinessDiscoveryDto.AccountInsightsDto toDto() {
+        if (posts == 0 || followersCount == null || followersCount == 0) {
+            return null;
+        }
+        return BusinessDiscoveryDto.AccountInsightsDto.builder()
+                .averageEngagementRate(ratedPosts > 0 ? engagementRateSum / ratedPosts : 0.0)
+                .totalLikes(totalLikes)
+                .totalComments(totalComments)
+                .postsLast30Days(recentPosts)
+                .averageLikes((double) totalLikes / posts)
+                .averageComments((double) totalComments / posts)
+                .medianEngagementRate(ratedPosts > 0 ? medianRate.value() : null)
+                .p90EngagementRate(ratedPosts > 0 ? p90Rate.value() : null)
+                .postsPerDay(postsPerDay())
+                .engagementByMediaType(byMediaType())
+                .topPosts(topPosts())
+                .build();
+    }
+
+    private Double postsPerDay() {
+        if (datedPosts < 2 || lastPublished == firstPublished) {
+            return null;
+        }
+        return (datedPosts - 1) * 86_400.0 / (lastPublished - firstPublished);
+    }
+
+    private Map<String, BusinessDiscoveryDto.MediaTypeEngagementDto> byMediaType() {
+        Map<String, BusinessDiscoveryDto.MediaTypeEngagementDto> byType = new LinkedHashMap<>();
+        for (int type = 0; type < MEDIA_TYPES.length; type++) {
+            int count = typePosts[type];
+            if (count == 0) {
+                continue;
+            }
+            byType.put(MEDIA_TYPES[type], BusinessDiscoveryDto.MediaTypeEngagementDto.builder()
+                    .posts(count)
+                    .averageEngagement((double) typeEngagement[type] / count)
+                    .averageEngagementRate(ratedPosts > 0 ? typeRateSum[type] / count : null)
+                    .build());
+        }
+        return byType;
+    }
+
+    private List<BusinessDiscoveryDto.MediaInsightDto> topPosts() {
+        // Drain a copy of the heap, so the engine can keep accepting posts after a snapshot
+        long[] engagement = topEngagement.clone();
+        BusinessDiscoveryDto.MediaInsightDto[] heap = topPosts.clone();
+        BusinessDiscoveryDto.MediaInsightDto[] ranked = new BusinessDiscoveryDto.MediaInsightDto[topSize];
+        for (int size = topSize; size > 0; size--) {
+            ranked[size - 1] = heap[0];
+            siftDown(engagement, heap, size - 1, engagement[size - 1], heap[size - 1]);
+        }
+        return List.of(ranked);
+    }
+
+    private static int typeIndex(String mediaType) {
+        if (mediaType == null) {
+            return OTHER;
+        }
+        return switch (mediaType) {
+            case "IMAGE" -> 0;
+            case "VIDEO" -> 1;
+            case "CAROUSEL_ALBUM" -> 2;
+            default -> OTHER;
+        };
+    }
+
+    /**
+     * Publication time of a Graph API timestamp (e.g. 2026-01-20T10:15:30+0000) in epoch seconds,
+     * or {@link #NO_TIMESTAMP}. The fixed layout is read digit by digit; anything else goes through
+     * the formatter.
+     */
+    static long epochSecond(String timestamp) {
+        if (timestamp == null) {
+            return NO_TIMESTAMP;
+        }
+        if (timestamp.length() == 24 && timestamp.charAt(4) == '-' && timestamp.charAt(7) == '-'
+                && timestamp.charAt(10) == 'T' && timestamp.charAt(13) == ':' && timestamp.charAt(16) == ':'
+                && (timestamp.charAt(19) == '+' || timestamp.charAt(19) == '-')) {
+            int year = digits(timestamp, 0, 4);
+            int month = digits(timestamp, 5, 2);
+            int day = digits(timestamp, 8, 2);
+            int hour = digits(timestamp, 11, 2);
+            int minute = digits(timestamp, 14, 2);
+            int second = digits(timestamp, 17, 2);
+            int offsetHours = digits(timestamp, 20, 2);
+            int offsetMinutes = digits(timestamp, 22, 2);
+            if (year >= 0 && month >= 1 && month <= 12 && day >= 1
+                    && day <= Month.of(month).length(Year.isLeap(year))
+                    && hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 60
+                    && offsetHours >= 0 && offsetHours < 18 && offsetMinutes >= 0 && offsetMinutes < 60) {
+                int offset = (offsetHours * 3600 + offsetMinutes * 60) * (timestamp.charAt(19) == '-' ? -1 : 1);
+                return epochDay(year, month, day) * 86_400 + hour * 3600 + minute * 60 + second - offset;
+            }
+        }
+        try {
+            return OffsetDateTime.parse(timestamp, GRAPH_TIMESTAMP).toEpochSecond();
+        } catch (DateTimeParseException e) {
+            return NO_TIMESTAMP;
+        }
+    }
+
+    /**
+     * Value of a run of ASCII digits, or -1 if any character is not a digit
+     */
+    private static int digits(String text, int from, int length) {
+        int value = 0;
+        for (int i = from; i < from + length; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date, as LocalDate#toEpochDay without the object
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+}
@@ -0,0 +1,66 @@
+package com.instagram.businessdiscovery.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.handler.timeout.ReadTimeoutException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Times Graph API calls per endpoint, from request to decoded body, tagged by outcome.
+ * Published as instagram.graph.requests; histogram buckets are switched on in application.yml.
+ * Calls shed by GraphApiThrottle are recorded with outcome=throttled, calls rejected by an open
+ * circuit breaker with outcome=unavailable. Retries and hedges of GraphApiResilience are timed as part of the call.
+ */
+@Component
+@RequiredArgsConstructor
+public class GraphApiMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Operator for Mono#transform that records the wrapped call under the given endpoint name
+     */
+    public <T> Function<Mono<T>, Mono<T>> timed(String endpoint) {
+        return call -> Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call
+                    .doOnSuccess(value -> stop(sample, endpoint, "success"))
+                    .doOnError(error -> stop(sample, endpoint, outcome(error)))
+                    .doOnCancel(() -> stop(sample, endpoint, "cancelled"));
+        });
+    }
+
+    private void stop(Timer.Sample sample, String endpoint, String outcome) {
+        sample.stop(Timer.builder("instagram.graph.requests")
+                .description("Graph API calls by endpoint and outcome")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private static String outcome(Throwable error) {
+        if (error instanceof GraphApiThrottledException) {
+            return "throttled";
+        }
+        if (error instanceof GraphApiUnavailableException) {
+            return "unavailable";
+        }
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
+        }
+        if (error instanceof TimeoutException || error.getCause() instanceof ReadTimeoutException) {
+            return "timeout";
+        }
+        if (error instanceof WebClientRequestException) {
+            return "connect_error";
+        }
+        return "error";
+    }
+}
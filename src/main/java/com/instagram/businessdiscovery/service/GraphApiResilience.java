@@ -0,0 +1,418 @@
+package com.instagram.businessdiscovery.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Keeps Graph API incidents from tying up callers, per endpoint:
+ * <ul>
+ *     <li>every attempt gets attempt-timeout instead of the 30s response timeout of the client</li>
+ *     <li>a circuit breaker opens when too many of the recent attempts failed with server errors or
+ *     timeouts, failing calls at once with {@link GraphApiUnavailableException}; after open-duration
+ *     a single probe decides whether it closes again</li>
+ *     <li>idempotent calls are retried on those errors with jittered exponential backoff</li>
+ *     <li>discovery lookups slower than the hedge quantile of recent latencies get a second,
+ *     hedged request, and the first response wins</li>
+ * </ul>
+ * Retries and hedges draw on one global budget that earns retry-budget.ratio of a token per call,
+ * so during an incident they add at most that share of extra load. Client errors and throttled
+ * calls are neither retried nor counted against the breaker.
+ */
+@Component
+@Slf4j
+public class GraphApiResilience {
+
+    /**
+     * How a call may be repeated
+     */
+    public enum Policy {
+        /** sent at most once, e.g. the single-use authorization code exchange */
+        ONCE,
+        /** retried on transient errors */
+        RETRY,
+        /** retried, and hedged when slow */
+        HEDGE
+    }
+
+    // Latencies are estimated over windows of this many calls, so old incidents age out
+    private static final int LATENCY_WINDOW = 1000;
+    // The retry budget is kept in millionths of a token, so it can be updated atomically
+    private static final long MICROS_PER_TOKEN = 1_000_000;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Counter retries;
+    private final Counter hedges;
+    private final Counter rejected;
+    private final Counter budgetExhausted;
+    private final AtomicLong retryDebtMicros = new AtomicLong();
+
+    @Value("${instagram.api.resilience.enabled:true}")
+    private boolean enabled;
+
+    @Value("${instagram.api.resilience.attempt-timeout:10s}")
+    private Duration attemptTimeout;
+
+    @Value("${instagram.api.resilience.max-retries:2}")
+    private int maxRetries;
+
+    @Value("${instagram.api.resilience.backoff:100ms}")
+    private Duration backoff;
+
+    @Value("${instagram.api.resilience.max-backoff:2s}")
+    private Duration maxBackoff;
+
+    @Value("${instagram.api.resilience.retry-budget.ratio:0.1}")
+    private double retryBudgetRatio;
+
+    @Value("${instagram.api.resilience.retry-budget.max-tokens:20}")
+    private double retryBudgetMaxTokens;
+
+    @Value("${instagram.api.resilience.circuit-breaker.window:20}")
+    private int breakerWindow;
+
+    @Value("${instagram.api.resilience.circuit-breaker.minimum-calls:10}")
+    private int breakerMinimumCalls;
+
+    @Value("${instagram.api.resilience.circuit-breaker.failure-rate:50}")
+    private double breakerFailureRate;
+
+    @Value("${instagram.api.resilience.circuit-breaker.open-duration:30s}")
+    private Duration breakerOpenDuration;
+
+    @Value("${instagram.api.resilience.hedge.enabled:true}")
+    private boolean hedgeEnabled;
+
+    @Value("${instagram.api.resilience.hedge.quantile:0.95}")
+    private double hedgeQuantile;
+
+    @Value("${instagram.api.resilience.hedge.min-delay:100ms}")
+    private Duration hedgeMinDelay;
+
+    @Value("${instagram.api.resilience.hedge.min-samples:20}")
+    private int hedgeMinSamples;
+
+    @Autowired
+    public GraphApiResilience(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(objectMapper, meterRegistry, Clock.systemUTC());
+    }
+
+    GraphApiResilience(ObjectMapper objectMapper, MeterRegistry meterRegistry, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.retries = resilienceCounter(meterRegistry, "retry");
+        this.hedges = resilienceCounter(meterRegistry, "hedge");
+        this.rejected = resilienceCounter(meterRegistry, "rejected");
+        this.budgetExhausted = resilienceCounter(meterRegistry, "budget_exhausted");
+    }
+
+    private static Counter resilienceCounter(MeterRegistry meterRegistry, String action) {
+        return Counter.builder("instagram.graph.resilience")
+                .description("Graph API attempts repeated or rejected by the resilience layer")
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Operator for Mono#transform that applies the timeout, breaker, retries and hedging of the endpoint
+     */
+    public <T> Function<Mono<T>, Mono<T>> resilient(String endpoint, Policy policy) {
+        return call -> {
+            if (!enabled) {
+                return call;
+            }
+            Endpoint state = endpoints.computeIfAbsent(endpoint, Endpoint::new);
+            Mono<T> attempt = attempt(state, call);
+            Mono<T> first = policy == Policy.HEDGE ? hedged(state, attempt) : attempt;
+            Mono<T> retried = policy == Policy.ONCE ? first : first.retryWhen(retrySpec(endpoint));
+            return Mono.defer(() -> {
+                depositRetryBudget();
+                return retried;
+            });
+        };
+    }
+
+    private <T> Mono<T> attempt(Endpoint state, Mono<T> call) {
+        return Mono.defer(() -> {
+            long now = clock.millis();
+            if (!state.tryAcquire(now)) {
+                rejected.increment();
+                return Mono.error(new GraphApiUnavailableException(state.name, state.retryAfter(now)));
+            }
+            long start = System.nanoTime();
+            return call
+                    .timeout(attemptTimeout)
+                    .doOnSuccess(value -> state.onSuccess(System.nanoTime() - start))
+                    .doOnError(error -> {
+                        if (isTransient(error)) {
+                            state.onFailure(clock.millis());
+                        } else if (error instanceof GraphApiThrottledException) {
+                            state.onCancel();
+                        } else {
+                            state.onSuccess(-1);
+                        }
+                    })
+                    .doOnCancel(state::onCancel);
+        });
+    }
+
+    private <T> Mono<T> hedged(Endpoint state, Mono<T> attempt) {
+        return Mono.defer(() -> {
+            Duration delay = hedgeEnabled ? state.hedgeDelay() : null;
+            if (delay == null) {
+                return attempt;
+            }
+            Mono<T> hedge = Mono.delay(delay)
+                    .then(Mono.defer(() -> {
+                        if (!withdrawRetryBudget()) {
+                            return Mono.<T>never();
+                        }
+                        hedges.increment();
+                        return attempt;
+                    }))
+                    // A failed hedge leaves the decision to the original request
+                    .onErrorResume(error -> Mono.never());
+            return Mono.firstWithSignal(attempt, hedge);
+        });
+    }
+
+    private Retry retrySpec(String endpoint) {
+        return Retry.backoff(maxRetries, backoff)
+                .maxBackoff(maxBackoff)
+                .jitter(0.5)
+                .filter(error -> isTransient(error) && withdrawRetryBudget())
+                .doBeforeRetry(signal -> {
+                    retries.increment();
+                    log.debug("Retrying Graph API {} after {}", endpoint, signal.failure().toString());
+                })
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    /**
+     * Server errors, timeouts, connection failures and the Graph API error codes documented as temporary
+     */
+    boolean isTransient(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            if (response.getStatusCode().is5xxServerError()) {
+                return true;
+            }
+            int code = graphErrorCode(response);
+            // 1: unknown error, 2: service temporarily unavailable
+            return code == 1 || code == 2;
+        }
+        return error instanceof TimeoutException || error instanceof WebClientRequestException;
+    }
+
+    private int graphErrorCode(WebClientResponseException response) {
+        byte[] body = response.getResponseBodyAsByteArray();
+        if (body.length == 0) {
+            return 0;
+        }
+        try {
+            JsonNode error = objectMapper.readTree(body).path("error");
+            return error.path("code").asInt();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void depositRetryBudget() {
+        retryDebtMicros.updateAndGet(debt -> Math.max(0, debt - Math.round(retryBudgetRatio * MICROS_PER_TOKEN)));
+    }
+
+    private boolean withdrawRetryBudget() {
+        long limit = Math.round(retryBudgetMaxTokens * MICROS_PER_TOKEN);
+        while (true) {
+            long debt = retryDebtMicros.get();
+            if (debt + MICROS_PER_TOKEN > limit) {
+                budgetExhausted.increment();
+                return false;
+            }
+            if (retryDebtMicros.compareAndSet(debt, debt + MICROS_PER_TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Circuit breaker and latency estimate of one endpoint. State is guarded by a lock rather than
+     * a monitor, and transitions are logged after it is released, so a virtual thread blocking on
+     * the log appender never pins its carrier while other calls wait for the endpoint.
+     */
+    private final class Endpoint {
+
+        private static final int CLOSED = 0;
+        private static final int HALF_OPEN = 1;
+        private static final int OPEN = 2;
+
+        private final String name;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final boolean[] failed;
+        private int calls;
+        private int next;
+        private int failures;
+        private volatile int state = CLOSED;
+        private long openedAt;
+        private boolean probing;
+        private P2Quantile latency;
+        private P2Quantile previousLatency;
+
+        Endpoint(String name) {
+            this.name = name;
+            this.failed = new boolean[breakerWindow];
+            this.latency = new P2Quantile(hedgeQuantile);
+            Gauge.builder("instagram.graph.circuit", () -> state)
+                    .description("Graph API circuit breaker state by endpoint: 0 closed, 1 half-open, 2 open")
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+        }
+
+        boolean tryAcquire(long now) {
+            lock.lock();
+            try {
+                if (state == OPEN) {
+                    if (now - openedAt < breakerOpenDuration.toMillis()) {
+                        return false;
+                    }
+                    state = HALF_OPEN;
+                    probing = false;
+                }
+                if (state == HALF_OPEN) {
+                    if (probing) {
+                        return false;
+                    }
+                    probing = true;
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        Duration retryAfter(long now) {
+            return Duration.ofMillis(Math.max(0, openedAt + breakerOpenDuration.toMillis() - now));
+        }
+
+        /**
+         * The call got an answer from Graph API; latency is negative for error answers
+         */
+        void onSuccess(long latencyNanos) {
+            boolean closed = false;
+            lock.lock();
+            try {
+                if (latencyNanos >= 0) {
+                    if (latency.count() >= LATENCY_WINDOW) {
+                        previousLatency = latency;
+                        latency = new P2Quantile(hedgeQuantile);
+                    }
+                    latency.add(latencyNanos / 1_000_000.0);
+                }
+                if (state == HALF_OPEN) {
+                    state = CLOSED;
+                    calls = 0;
+                    next = 0;
+                    failures = 0;
+                    closed = true;
+                } else if (state == CLOSED) {
+                    record(false);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (closed) {
+                log.info("Graph API {} circuit closed", name);
+            }
+        }
+
+        void onFailure(long now) {
+            boolean opened = false;
+            lock.lock();
+            try {
+                if (state == HALF_OPEN) {
+                    open(now);
+                    opened = true;
+                } else if (state == CLOSED) {
+                    record(true);
+                    if (calls >= breakerMinimumCalls && failures * 100.0 >= breakerFailureRate * calls) {
+                        open(now);
+                        opened = true;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (opened) {
+                log.warn("Graph API {} circuit opened for {}", name, breakerOpenDuration);
+            }
+        }
+
+        void onCancel() {
+            lock.lock();
+            try {
+                if (state == HALF_OPEN) {
+                    probing = false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void record(boolean failure) {
+            if (calls == failed.length) {
+                failures -= failed[next] ? 1 : 0;
+            } else {
+                calls++;
+            }
+            failed[next] = failure;
+            failures += failure ? 1 : 0;
+            next = (next + 1) % failed.length;
+        }
+
+        private void open(long now) {
+            state = OPEN;
+            openedAt = now;
+            probing = false;
+        }
+
+        /**
+         * Delay after which a hedged request is sent, or null while too few latencies are known
+         */
+        Duration hedgeDelay() {
+            lock.lock();
+            try {
+                P2Quantile estimate = latency.count() >= hedgeMinSamples ? latency : previousLatency;
+                if (estimate == null || estimate.count() < hedgeMinSamples) {
+                    return null;
+                }
+                long millis = (long) Math.ceil(estimate.value());
+                return Duration.ofMillis(Math.max(hedgeMinDelay.toMillis(), millis));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.instagram.businessdiscovery.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+
+/**
+ * Paces Graph API calls from the usage Meta reports on every response: X-App-Usage for the
+ * app as a whole and X-Business-Use-Case-Usage for the access token the call was made with.
+ * <ul>
+ *     <li>below soft-limit percent: calls go out unhindered</li>
+ *     <li>above it: calls are spaced out, up to max-interval apart as usage nears 100%</li>
+ *     <li>at a limit: calls wait for the reported recovery time, or fail with
+ *     {@link GraphApiThrottledException} at once when that is longer than max-queue-wait</li>
+ * </ul>
+ * Usage is a rolling one-hour figure, so without fresh headers the estimate decays to zero over an hour.
+ */
+@Component
+@Slf4j
+public class GraphApiThrottle {
+
+    /**
+     * Request attribute naming the access token of calls that do not carry it in the URL, e.g. batch POSTs
+     */
+    public static final String ACCESS_TOKEN_ATTRIBUTE = GraphApiThrottle.class.getName() + ".accessToken";
+
+    static final String APP_USAGE = "X-App-Usage";
+    static final String BUSINESS_USE_CASE_USAGE = "X-Business-Use-Case-Usage";
+
+    private static final long USAGE_WINDOW_MILLIS = Duration.ofHours(1).toMillis();
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Usage app = new Usage();
+    private final Cache<String, Usage> tokens = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(1))
+            .maximumSize(100_000)
+            .build();
+    private final Counter delayed;
+    private final Counter shed;
+
+    @Value("${instagram.api.throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${instagram.api.throttle.soft-limit:75}")
+    private double softLimit;
+
+    @Value("${instagram.api.throttle.max-interval:200ms}")
+    private Duration maxInterval;
+
+    @Value("${instagram.api.throttle.max-queue-wait:5s}")
+    private Duration maxQueueWait;
+
+    @Value("${instagram.api.throttle.limit-backoff:60s}")
+    private Duration limitBackoff;
+
+    @Autowired
+    public GraphApiThrottle(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this(objectMapper, meterRegistry, Clock.systemUTC());
+    }
+
+    GraphApiThrottle(ObjectMapper objectMapper, MeterRegistry meterRegistry, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        Gauge.builder("instagram.graph.app-usage", () -> app.percent(clock.millis()))
+                .description("Estimated app-level Graph API usage in percent of the limit")
+                .register(meterRegistry);
+        this.delayed = throttleCounter(meterRegistry, "delayed");
+        this.shed = throttleCounter(meterRegistry, "shed");
+    }
+
+    private static Counter throttleCounter(MeterRegistry meterRegistry, String action) {
+        return Counter.builder("instagram.graph.throttle")
+                .description("Graph API calls held back or rejected by the usage throttle")
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Filter for the Graph API WebClient: waits or sheds before the exchange and reads usage headers after it
+     */
+    public ExchangeFilterFunction filter() {
+        return (request, next) -> {
+            if (!enabled) {
+                return next.exchange(request);
+            }
+            String accessToken = accessToken(request);
+            return Mono.defer(() -> {
+                        Duration wait = admit(accessToken);
+                        return wait.isZero() ? next.exchange(request) : Mono.delay(wait).then(next.exchange(request));
+                    })
+                    .doOnNext(response -> record(accessToken, response));
+        };
+    }
+
+    /**
+     * Reserve a send slot for a call with the token, returning how long the call has to wait for it
+     */
+    Duration admit(String accessToken) {
+        long now = clock.millis();
+        Usage token = accessToken != null ? tokens.get(accessToken, key -> new Usage()) : null;
+
+        long blockedUntil = Math.max(app.blockedUntil, token != null ? token.blockedUntil : 0);
+        if (blockedUntil - now > maxQueueWait.toMillis()) {
+            shed.increment();
+            throw new GraphApiThrottledException(Duration.ofMillis(blockedUntil - now));
+        }
+
+        long start = app.reserve(now, interval(app.percent(now)));
+        if (token != null) {
+            start = Math.max(start, token.reserve(now, interval(token.percent(now))));
+        }
+        long wait = start - now;
+        if (wait > maxQueueWait.toMillis()) {
+            shed.increment();
+            throw new GraphApiThrottledException(Duration.ofMillis(wait));
+        }
+        if (wait > 0) {
+            delayed.increment();
+        }
+        return Duration.ofMillis(wait);
+    }
+
+    private long interval(double percent) {
+        if (percent <= softLimit) {
+            return 0;
+        }
+        double pressure = Math.min(1, (percent - softLimit) / (100 - softLimit));
+        return (long) (maxInterval.toMillis() * pressure);
+    }
+
+    private void record(String accessToken, ClientResponse response) {
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        long now = clock.millis();
+
+        String appUsage = headers.getFirst(APP_USAGE);
+        if (appUsage != null) {
+            JsonNode usage = readUsage(appUsage);
+            if (usage != null) {
+                app.update(now, maxPercent(usage), 0, limitBackoff.toMillis());
+            }
+        }
+
+        String businessUsage = headers.getFirst(BUSINESS_USE_CASE_USAGE);
+        if (businessUsage != null && accessToken != null) {
+            JsonNode usage = readUsage(businessUsage);
+            if (usage != null) {
+                // {"<business id>": [{"type": "instagram", "call_count": 12, ..., "estimated_time_to_regain_access": 0}]}
+                double percent = 0;
+                long regainMillis = 0;
+                for (Iterator<JsonNode> objects = usage.elements(); objects.hasNext(); ) {
+                    for (JsonNode useCase : objects.next()) {
+                        percent = Math.max(percent, maxPercent(useCase));
+                        regainMillis = Math.max(regainMillis,
+                                Duration.ofMinutes(useCase.path("estimated_time_to_regain_access").asLong()).toMillis());
+                    }
+                }
+                tokens.get(accessToken, key -> new Usage()).update(now, percent, regainMillis, limitBackoff.toMillis());
+            }
+        }
+    }
+
+    private JsonNode readUsage(String header) {
+        try {
+            return objectMapper.readTree(header);
+        } catch (IOException e) {
+            log.debug("Ignoring unreadable Graph API usage header: {}", header);
+            return null;
+        }
+    }
+
+    private static double maxPercent(JsonNode usage) {
+        return Math.max(usage.path("call_count").asDouble(),
+                Math.max(usage.path("total_cputime").asDouble(), usage.path("total_time").asDouble()));
+    }
+
+    private static String accessToken(ClientRequest request) {
+        return request.attribute(ACCESS_TOKEN_ATTRIBUTE)
+                .map(Object::toString)
+                .orElseGet(() -> UriComponentsBuilder.fromUri(request.url()).build().getQueryParams().getFirst("access_token"));
+    }
+
+    /**
+     * Usage estimate and send schedule of the app or of one token
+     */
+    private static final class Usage {
+        private volatile double percent;
+        private volatile long updatedAt;
+        private volatile long blockedUntil;
+        private long nextSlot;
+
+        /**
+         * Last reported usage, decayed linearly over the rolling window since it was reported
+         */
+        double percent(long now) {
+            double elapsed = Math.max(0, now - updatedAt);
+            return percent * Math.max(0, 1 - elapsed / USAGE_WINDOW_MILLIS);
+        }
+
+        void update(long now, double reported, long regainMillis, long limitBackoffMillis) {
+            percent = reported;
+            updatedAt = now;
+            if (regainMillis > 0) {
+                blockedUntil = now + regainMillis;
+            } else if (reported >= 100) {
+                // No recovery time reported, back off for a while before probing again
+                blockedUntil = now + limitBackoffMillis;
+            }
+        }
+
+        synchronized long reserve(long now, long intervalMillis) {
+            long slot = Math.max(now, Math.max(nextSlot, blockedUntil));
+            nextSlot = slot + intervalMillis;
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.instagram.businessdiscovery.service;
+
+import java.time.Duration;
+
+/**
+ * A Graph API call was not sent because the app or token usage limit is reached and
+ * the reported recovery time is longer than callers are allowed to queue
+ */
+public class GraphApiThrottledException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public GraphApiThrottledException(Duration retryAfter) {
+        super("Graph API rate limit reached. Retry in " + Math.max(1, retryAfter.toSeconds()) + " seconds.");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
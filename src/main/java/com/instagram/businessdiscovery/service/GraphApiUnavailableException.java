@@ -0,0 +1,22 @@
+package com.instagram.businessdiscovery.service;
+
+import java.time.Duration;
+
+/**
+ * A Graph API call was not sent because the circuit breaker of its endpoint is open
+ * after a run of server errors and timeouts
+ */
+public class GraphApiUnavailableException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public GraphApiUnavailableException(String endpoint, Duration retryAfter) {
+        super("Graph API " + endpoint + " is temporarily unavailable. Retry in "
+                + Math.max(1, retryAfter.toSeconds()) + " seconds.");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,224 @@
+package com.instagram.businessdiscovery.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Micro-batches Graph API GET lookups. Requests for the same access token that arrive within
+ * a short window are sent as one Graph API batch call (at most 50 sub-requests), and each
+ * sub-response is handed back to the caller that asked for it.
+ * <p>
+ * Every sub-request still counts against the Graph API rate limits; batching saves connections
+ * and round trips, not quota.
+ */
+@Component
+@Slf4j
+public class GraphBatchCollector {
+
+    /**
+     * Largest batch the Graph API accepts
+     */
+    static final int GRAPH_BATCH_LIMIT = 50;
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final GraphApiMetrics graphApiMetrics;
+    private final DistributionSummary batchSizes;
+    private final Map<String, PendingBatch> pending = new ConcurrentHashMap<>();
+
+    @Value("${instagram.api.base-url}")
+    private String instagramApiBaseUrl;
+
+    @Value("${instagram.api.graph-batch.window:5ms}")
+    private Duration window;
+
+    @Value("${instagram.api.graph-batch.max-size:50}")
+    private int maxSize;
+
+    public GraphBatchCollector(WebClient graphApiWebClient, ObjectMapper objectMapper,
+                               GraphApiMetrics graphApiMetrics, MeterRegistry meterRegistry) {
+        this.webClient = graphApiWebClient;
+        this.objectMapper = objectMapper;
+        this.graphApiMetrics = graphApiMetrics;
+        this.batchSizes = DistributionSummary.builder("instagram.graph.batch.size")
+                .description("Sub-requests per Graph API batch call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a GET for the relative URL and emit the body of its sub-response. Cancelling before
+     * the batch is sent takes the lookup out of it.
+     */
+    public Mono<byte[]> submit(String accessToken, String relativeUrl) {
+        return Mono.create(sink -> {
+            BatchItem item = new BatchItem(relativeUrl, sink);
+            PendingBatch batch = enqueue(accessToken, item);
+            sink.onCancel(() -> withdraw(batch, item));
+        });
+    }
+
+    private PendingBatch enqueue(String accessToken, BatchItem item) {
+        while (true) {
+            PendingBatch batch = pending.computeIfAbsent(accessToken, PendingBatch::new);
+            boolean full;
+            batch.lock.lock();
+            try {
+                if (batch.closed) {
+                    // Flushed between lookup and lock, start a new one
+                    continue;
+                }
+                batch.items.add(item);
+                if (batch.items.size() == 1) {
+                    batch.timer = Schedulers.parallel().schedule(() -> flush(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+                }
+                full = batch.items.size() >= Math.min(maxSize, GRAPH_BATCH_LIMIT);
+                if (full) {
+                    close(batch);
+                }
+            } finally {
+                batch.lock.unlock();
+            }
+            if (full) {
+                send(batch);
+            }
+            return batch;
+        }
+    }
+
+    private void withdraw(PendingBatch batch, BatchItem item) {
+        batch.lock.lock();
+        try {
+            if (batch.closed || !batch.items.remove(item)) {
+                // Already sent, its sub-response is dropped by the cancelled sink
+                return;
+            }
+            if (batch.items.isEmpty()) {
+                close(batch);
+            }
+        } finally {
+            batch.lock.unlock();
+        }
+    }
+
+    private void flush(PendingBatch batch) {
+        batch.lock.lock();
+        try {
+            if (batch.closed) {
+                return;
+            }
+            close(batch);
+        } finally {
+            batch.lock.unlock();
+        }
+        send(batch);
+    }
+
+    private void close(PendingBatch batch) {
+        batch.closed = true;
+        pending.remove(batch.accessToken, batch);
+        if (batch.timer != null) {
+            batch.timer.dispose();
+        }
+    }
+
+    private void send(PendingBatch batch) {
+        List<BatchItem> items = batch.items;
+        batchSizes.record(items.size());
+        log.debug("Sending Graph API batch of {} lookups", items.size());
+
+        String requests;
+        try {
+            requests = objectMapper.writeValueAsString(items.stream()
+                    .map(item -> Map.of("method", "GET", "relative_url", item.relativeUrl()))
+                    .toList());
+        } catch (JsonProcessingException e) {
+            items.forEach(item -> item.sink().error(e));
+            return;
+        }
+
+        webClient.post()
+                .uri(instagramApiBaseUrl)
+                .attribute(GraphApiThrottle.ACCESS_TOKEN_ATTRIBUTE, batch.accessToken)
+                .body(BodyInserters.fromFormData("access_token", batch.accessToken)
+                        .with("batch", requests)
+                        .with("include_headers", "false"))
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .transform(graphApiMetrics.timed("batch"))
+                .subscribe(responses -> demultiplex(items, responses),
+                        error -> {
+                            log.error("Graph API batch of {} lookups failed: {}", items.size(), error.getMessage());
+                            items.forEach(item -> item.sink().error(error));
+                        });
+    }
+
+    private static void demultiplex(List<BatchItem> items, JsonNode responses) {
+        for (int i = 0; i < items.size(); i++) {
+            MonoSink<byte[]> sink = items.get(i).sink();
+            try {
+                complete(sink, responses.get(i));
+            } catch (RuntimeException e) {
+                // One malformed sub-response must not leave the rest of the batch hanging
+                sink.error(e);
+            }
+        }
+    }
+
+    private static void complete(MonoSink<byte[]> sink, JsonNode response) {
+        if (response == null || response.isNull()) {
+            // Graph API leaves a null in place of sub-requests it did not get to in time
+            sink.error(new RuntimeException("Graph API batch request did not complete"));
+            return;
+        }
+        JsonNode code = response.get("code");
+        if (code == null || !code.canConvertToInt() || code.asInt() < 100 || code.asInt() > 599) {
+            sink.error(new RuntimeException("Graph API batch response has no valid status code: " + code));
+            return;
+        }
+        byte[] body = response.path("body").asText().getBytes(StandardCharsets.UTF_8);
+        if (code.asInt() == 200) {
+            sink.success(body);
+        } else {
+            sink.error(WebClientResponseException.create(code.asInt(), "Graph API batch request failed",
+                    HttpHeaders.EMPTY, body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private record BatchItem(String relativeUrl, MonoSink<byte[]> sink) {
+    }
+
+    private static final class PendingBatch {
+        private final String accessToken;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final List<BatchItem> items = new ArrayList<>();
+        private Disposable timer;
+        private boolean closed;
+
+        private PendingBatch(String accessToken) {
+            this.accessToken = accessToken;
+        }
+    }
+}
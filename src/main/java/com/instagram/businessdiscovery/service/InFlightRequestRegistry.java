@@ -0,0 +1,70 @@
+package com.instagram.businessdiscovery.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight registry for Graph API lookups. Concurrent callers asking for the same
+ * key subscribe to one shared in-flight Mono instead of each making their own HTTP call.
+ */
+@Component
+@Slf4j
+public class InFlightRequestRegistry {
+
+    private final Map<DiscoveryKey, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executedCounter;
+    private final Counter coalescedCounter;
+
+    public InFlightRequestRegistry(MeterRegistry meterRegistry) {
+        this.executedCounter = Counter.builder("instagram.graph.singleflight")
+                .description("Business discovery lookups by single-flight outcome")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("instagram.graph.singleflight")
+                .description("Business discovery lookups by single-flight outcome")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        meterRegistry.gauge("instagram.graph.singleflight.in-flight", inFlight, Map::size);
+    }
+
+    /**
+     * Run the call for the key, or join the call already in flight for it
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(DiscoveryKey key, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            AtomicBoolean created = new AtomicBoolean(false);
+            Mono<T> shared = (Mono<T>) inFlight.computeIfAbsent(key, k -> {
+                created.set(true);
+                // Deferred so the call is assembled after the map's bin lock is released
+                return Mono.defer(call)
+                        .doFinally(signal -> inFlight.remove(k))
+                        .cache();
+            });
+
+            if (created.get()) {
+                executedCounter.increment();
+            } else {
+                coalescedCounter.increment();
+                log.debug("Joining in-flight lookup for {}", key);
+            }
+            return shared;
+        });
+    }
+
+    public long getExecutedCount() {
+        return (long) executedCounter.count();
+    }
+
+    public long getCoalescedCount() {
+        return (long) coalescedCounter.count();
+    }
+}
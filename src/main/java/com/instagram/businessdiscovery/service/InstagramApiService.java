@@ -5,21 +5,30 @@ import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
 import com.instagram.businessdiscovery.dto.InstagramProfileDto;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.time.Duration;
 
 @Service
 @Slf4j
 public class InstagramApiService {
 
     private final WebClient webClient;
+    private final InFlightRequestRegistry inFlightRequests;
+    private final BusinessDiscoveryCache discoveryCache;
+    private final BusinessDiscoveryResponseParser responseParser;
+    private final GraphApiMetrics graphApiMetrics;
+    private final GraphApiResilience graphApiResilience;
+    private final GraphBatchCollector graphBatchCollector;
 
     @Value("${facebook.client-id}")
     private String clientId;
@@ -39,10 +48,20 @@ public class InstagramApiService {
     @Value("${instagram.api.base-url}")
     private String instagramApiBaseUrl;
 
-    public InstagramApiService(WebClient.Builder webClientBuilder) {
-        this.webClient = webClientBuilder
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
-                .build();
+    @Value("${instagram.api.graph-batch.enabled:false}")
+    private boolean graphBatchEnabled;
+
+    public InstagramApiService(WebClient graphApiWebClient, InFlightRequestRegistry inFlightRequests,
+                               BusinessDiscoveryCache discoveryCache, BusinessDiscoveryResponseParser responseParser,
+                               GraphApiMetrics graphApiMetrics, GraphApiResilience graphApiResilience,
+                               GraphBatchCollector graphBatchCollector) {
+        this.webClient = graphApiWebClient;
+        this.inFlightRequests = inFlightRequests;
+        this.discoveryCache = discoveryCache;
+        this.responseParser = responseParser;
+        this.graphApiMetrics = graphApiMetrics;
+        this.graphApiResilience = graphApiResilience;
+        this.graphBatchCollector = graphBatchCollector;
     }
 
     /**
@@ -61,7 +80,8 @@ public class InstagramApiService {
                 .retrieve()
                 .bodyToMono(JsonNode.class)
                 .map(response -> response.get("access_token").asText())
-                .timeout(Duration.ofSeconds(30))
+                .transform(graphApiResilience.resilient("access_token", GraphApiResilience.Policy.ONCE))
+                .transform(graphApiMetrics.timed("access_token"))
                 .doOnSuccess(token -> log.debug("Successfully obtained access token"))
                 .doOnError(error -> log.error("Failed to get access token: {}", error.getMessage()));
     }
@@ -78,6 +98,8 @@ public class InstagramApiService {
                         .build())
                 .retrieve()
                 .bodyToMono(JsonNode.class)
+                .transform(graphApiResilience.resilient("me_accounts", GraphApiResilience.Policy.RETRY))
+                .transform(graphApiMetrics.timed("me_accounts"))
                 .flatMap(response -> {
                     JsonNode data = response.get("data");
                     if (data == null || !data.isArray() || data.isEmpty()) {
@@ -87,7 +109,6 @@ public class InstagramApiService {
                     String firstPageId = data.get(0).get("id").asText();
                     return getInstagramAccountFromPage(firstPageId, accessToken);
                 })
-                .timeout(Duration.ofSeconds(30))
                 .doOnSuccess(accountId -> log.debug("Successfully obtained Instagram account ID: {}", accountId))
                 .doOnError(error -> log.error("Failed to get Instagram account ID: {}", error.getMessage()));
     }
@@ -100,6 +121,8 @@ public class InstagramApiService {
                         .build())
                 .retrieve()
                 .bodyToMono(JsonNode.class)
+                .transform(graphApiResilience.resilient("page", GraphApiResilience.Policy.RETRY))
+                .transform(graphApiMetrics.timed("page"))
                 .flatMap(response -> {
                     JsonNode igAccount = response.get("instagram_business_account");
                     if (igAccount != null && igAccount.has("id")) {
@@ -129,33 +152,38 @@ public class InstagramApiService {
                 .uri(uri)
                 .retrieve()
                 .bodyToMono(InstagramProfileDto.class)
-                .timeout(Duration.ofSeconds(30))
+                .transform(graphApiResilience.resilient("profile", GraphApiResilience.Policy.RETRY))
+                .transform(graphApiMetrics.timed("profile"))
                 .doOnSuccess(profile -> log.debug("Successfully retrieved profile for: {}", profile.getUsername()))
                 .doOnError(error -> log.error("Failed to get user profile: {}", error.getMessage()));
     }
 
     /**
-     * Business Discovery - Get other user's public business information
+     * Business Discovery - Get other user's public business information, with the time it was fetched
      */
-    @Cacheable(value = "businessDiscovery", key = "#targetUsername")
-    public Mono<BusinessDiscoveryDto> getBusinessDiscovery(String instagramAccountId, String targetUsername, String accessToken) {
+    public Mono<CachedDiscovery> getBusinessDiscovery(String instagramAccountId, String targetUsername, String accessToken) {
+        DiscoveryKey key = DiscoveryKey.of(targetUsername, false);
+
+        // A fresh result fetched with media is a superset of the plain profile
+        CachedDiscovery withMedia = discoveryCache.getFreshEntry(DiscoveryKey.of(targetUsername, true));
+        if (withMedia != null) {
+            return Mono.just(withMedia);
+        }
+
+        return discoveryCache.get(key, () -> inFlightRequests.execute(key,
+                () -> fetchBusinessDiscovery(instagramAccountId, targetUsername, accessToken)));
+    }
+
+    private Mono<BusinessDiscoveryDto> fetchBusinessDiscovery(String instagramAccountId, String targetUsername, String accessToken) {
         log.debug("Performing business discovery for target: {}", targetUsername);
 
         String fields = "id,username,name,biography,followers_count,follows_count,media_count,profile_picture_url,website";
 
-        URI uri = UriComponentsBuilder.fromUriString(instagramApiBaseUrl)
-                .path("/" + instagramAccountId)
-                .queryParam("fields", "business_discovery.username(" + targetUsername + "){" + fields + "}")
-                .queryParam("access_token", accessToken)
-                .build()
-                .toUri();
-
-        return webClient.get()
-                .uri(uri)
-                .retrieve()
-                .bodyToMono(JsonNode.class)
-                .flatMap(this::parseBusinessDiscoveryResponse)
-                .timeout(Duration.ofSeconds(30))
+        return requestBusinessDiscovery(instagramAccountId, "business_discovery.username(" + targetUsername + "){" + fields + "}",
+                accessToken, "Business discovery data not found. User might not be a business account or username is incorrect.")
+                .transform(graphApiResilience.resilient("business_discovery", GraphApiResilience.Policy.HEDGE))
+                .transform(graphApiMetrics.timed("business_discovery"))
+                .onErrorMap(this::isUnknownUser, error -> unknownUser(targetUsername))
                 .doOnSuccess(discovery -> log.debug("Successfully retrieved business discovery for: {}", targetUsername))
                 .doOnError(WebClientResponseException.class, error -> {
                     log.error("API Error for business discovery of {}: {} - {}",
@@ -164,41 +192,69 @@ public class InstagramApiService {
                 .doOnError(error -> log.error("Failed to get business discovery for {}: {}", targetUsername, error.getMessage()));
     }
 
-    private Mono<BusinessDiscoveryDto> parseBusinessDiscoveryResponse(JsonNode response) {
-        JsonNode businessDiscovery = response.get("business_discovery");
-        if (businessDiscovery == null) {
-            return Mono.error(new RuntimeException("Business discovery data not found. User might not be a business account or username is incorrect."));
-        }
-
-        BusinessDiscoveryDto dto = BusinessDiscoveryDto.builder()
-                .id(getTextValue(businessDiscovery, "id"))
-                .username(getTextValue(businessDiscovery, "username"))
-                .name(getTextValue(businessDiscovery, "name"))
-                .biography(getTextValue(businessDiscovery, "biography"))
-                .followersCount(getIntValue(businessDiscovery, "followers_count"))
-                .followsCount(getIntValue(businessDiscovery, "follows_count"))
-                .mediaCount(getIntValue(businessDiscovery, "media_count"))
-                .profilePictureUrl(getTextValue(businessDiscovery, "profile_picture_url"))
-                /*.accountType(getTextValue(businessDiscovery, "account_type"))*/
-                .website(getTextValue(businessDiscovery, "website"))
-                /*.isVerified(getBooleanValue(businessDiscovery))*/
-                .build();
-
-        return Mono.just(dto);
+    /**
+     * Fetch the target from Graph API even when a cached result exists, replacing the cached entry
+     */
+    public Mono<BusinessDiscoveryDto> refreshBusinessDiscovery(String instagramAccountId, String targetUsername,
+                                                               String accessToken, boolean includeMedia) {
+        DiscoveryKey key = DiscoveryKey.of(targetUsername, includeMedia);
+        return discoveryCache.reload(key, () -> inFlightRequests.execute(key, () -> includeMedia
+                ? fetchBusinessDiscoveryWithMedia(instagramAccountId, targetUsername, accessToken)
+                : fetchBusinessDiscovery(instagramAccountId, targetUsername, accessToken)));
     }
 
     /**
      * Get recent media for business discovery target
      */
-    public Mono<BusinessDiscoveryDto> getBusinessDiscoveryWithMedia(String instagramAccountId, String targetUsername, String accessToken) {
+    public Mono<CachedDiscovery> getBusinessDiscoveryWithMedia(String instagramAccountId, String targetUsername, String accessToken) {
+        DiscoveryKey key = DiscoveryKey.of(targetUsername, true);
+        return discoveryCache.get(key, () -> inFlightRequests.execute(key,
+                () -> fetchBusinessDiscoveryWithMedia(instagramAccountId, targetUsername, accessToken)));
+    }
+
+    private Mono<BusinessDiscoveryDto> fetchBusinessDiscoveryWithMedia(String instagramAccountId, String targetUsername, String accessToken) {
         log.debug("Getting business discovery with media for: {}", targetUsername);
 
         String mediaFields = "id,media_url,media_type,caption,like_count,comments_count,timestamp,permalink";
         String fields = "id,username,name,biography,followers_count,follows_count,media_count,profile_picture_url,website,media{" + mediaFields + "}";
 
+        return requestBusinessDiscovery(instagramAccountId, "business_discovery.username(" + targetUsername + "){" + fields + "}",
+                accessToken, "Business discovery data not found")
+                .transform(graphApiResilience.resilient("business_discovery_media", GraphApiResilience.Policy.HEDGE))
+                .transform(graphApiMetrics.timed("business_discovery_media"))
+                .onErrorMap(this::isUnknownUser, error -> unknownUser(targetUsername))
+                .doOnSuccess(discovery -> log.debug("Successfully retrieved business discovery with media for: {}", targetUsername))
+                .doOnError(error -> log.error("Failed to get business discovery with media for {}: {}", targetUsername, error.getMessage()));
+    }
+
+    /**
+     * Stream a target's media one page at a time, newest first. The next page is requested
+     * with the previous page's after cursor only once the previous page has been consumed,
+     * so cancelling the stream stops further Graph API calls.
+     */
+    public Flux<MediaPage> getMediaPages(String instagramAccountId, String targetUsername, String accessToken, int pageSize) {
+        return getMediaPagesAfter(instagramAccountId, targetUsername, accessToken, pageSize, null);
+    }
+
+    private Flux<MediaPage> getMediaPagesAfter(String instagramAccountId, String targetUsername, String accessToken,
+                                               int pageSize, String after) {
+        return fetchMediaPage(instagramAccountId, targetUsername, accessToken, pageSize, after)
+                .flatMapMany(page -> page.after() == null
+                        ? Flux.just(page)
+                        : Flux.just(page).concatWith(Flux.defer(() ->
+                                getMediaPagesAfter(instagramAccountId, targetUsername, accessToken, pageSize, page.after()))));
+    }
+
+    private Mono<MediaPage> fetchMediaPage(String instagramAccountId, String targetUsername, String accessToken,
+                                           int pageSize, String after) {
+        log.debug("Getting media page for {} after cursor {}", targetUsername, after);
+
+        String mediaFields = "id,media_url,media_type,caption,like_count,comments_count,timestamp,permalink";
+        String media = "media" + (after != null ? ".after(" + after + ")" : "") + ".limit(" + pageSize + "){" + mediaFields + "}";
+
         URI uri = UriComponentsBuilder.fromUriString(instagramApiBaseUrl)
                 .path("/" + instagramAccountId)
-                .queryParam("fields", "business_discovery.username(" + targetUsername + "){" + fields + "}")
+                .queryParam("fields", "business_discovery.username(" + targetUsername + "){followers_count," + media + "}")
                 .queryParam("access_token", accessToken)
                 .build()
                 .toUri();
@@ -206,107 +262,83 @@ public class InstagramApiService {
         return webClient.get()
                 .uri(uri)
                 .retrieve()
-                .bodyToMono(JsonNode.class)
-                .flatMap(this::parseBusinessDiscoveryWithMediaResponse)
-                .timeout(Duration.ofSeconds(30))
-                .doOnSuccess(discovery -> log.debug("Successfully retrieved business discovery with media for: {}", targetUsername))
-                .doOnError(error -> log.error("Failed to get business discovery with media for {}: {}", targetUsername, error.getMessage()));
+                .bodyToMono(DataBuffer.class)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .flatMap(this::decodeMediaPage)
+                .transform(graphApiResilience.resilient("business_discovery_media_page", GraphApiResilience.Policy.HEDGE))
+                .transform(graphApiMetrics.timed("business_discovery_media_page"))
+                .onErrorMap(this::isUnknownUser, error -> unknownUser(targetUsername))
+                .doOnError(error -> log.error("Failed to get media page for {}: {}", targetUsername, error.getMessage()));
     }
 
-    private Mono<BusinessDiscoveryDto> parseBusinessDiscoveryWithMediaResponse(JsonNode response) {
-        JsonNode businessDiscovery = response.get("business_discovery");
-        if (businessDiscovery == null) {
-            return Mono.error(new RuntimeException("Business discovery data not found"));
+    private Mono<MediaPage> decodeMediaPage(DataBuffer body) {
+        try (InputStream in = body.asInputStream(true)) {
+            MediaPage page = responseParser.parseMediaPage(in);
+            return page != null ? Mono.just(page) : Mono.error(new BusinessDiscoveryNotFoundException(
+                    BusinessDiscoveryNotFoundException.Reason.NOT_BUSINESS_ACCOUNT, "Business discovery data not found"));
+        } catch (IOException e) {
+            return Mono.error(new RuntimeException("Failed to decode media page", e));
         }
+    }
 
-        BusinessDiscoveryDto dto = BusinessDiscoveryDto.builder()
-                .id(getTextValue(businessDiscovery, "id"))
-                .username(getTextValue(businessDiscovery, "username"))
-                .name(getTextValue(businessDiscovery, "name"))
-                .biography(getTextValue(businessDiscovery, "biography"))
-                .followersCount(getIntValue(businessDiscovery, "followers_count"))
-                .followsCount(getIntValue(businessDiscovery, "follows_count"))
-                .mediaCount(getIntValue(businessDiscovery, "media_count"))
-                .profilePictureUrl(getTextValue(businessDiscovery, "profile_picture_url"))
-                /*.accountType(getTextValue(businessDiscovery, "account_type"))*/
-                .website(getTextValue(businessDiscovery, "website"))
-                /*.isVerified(getBooleanValue(businessDiscovery))*/
-                .build();
-
-        // Parse media
-        JsonNode media = businessDiscovery.get("media");
-        if (media != null && media.has("data")) {
-            JsonNode mediaData = media.get("data");
-            java.util.List<BusinessDiscoveryDto.MediaInsightDto> mediaList = new java.util.ArrayList<>();
-
-            for (JsonNode mediaItem : mediaData) {
-                BusinessDiscoveryDto.MediaInsightDto mediaDto = BusinessDiscoveryDto.MediaInsightDto.builder()
-                        .id(getTextValue(mediaItem, "id"))
-                        .mediaUrl(getTextValue(mediaItem, "media_url"))
-                        .mediaType(getTextValue(mediaItem, "media_type"))
-                        .caption(getTextValue(mediaItem, "caption"))
-                        .likeCount(getIntValue(mediaItem, "like_count"))
-                        .commentsCount(getIntValue(mediaItem, "comments_count"))
-                        .timestamp(getTextValue(mediaItem, "timestamp"))
-                        .permalink(getTextValue(mediaItem, "permalink"))
-                        .build();
-
-                // Calculate engagement rate
-                if (dto.getFollowersCount() != null && dto.getFollowersCount() > 0) {
-                    int totalEngagement = (mediaDto.getLikeCount() != null ? mediaDto.getLikeCount() : 0) +
-                            (mediaDto.getCommentsCount() != null ? mediaDto.getCommentsCount() : 0);
-                    double engagementRate = (double) totalEngagement / dto.getFollowersCount() * 100;
-                    mediaDto.setEngagementRate(engagementRate);
-                }
-
-                mediaList.add(mediaDto);
-            }
-
-            dto.setRecentMedia(mediaList);
-
-            // Calculate insights
-            dto.setInsights(calculateInsights(mediaList, dto.getFollowersCount()));
+    /**
+     * Send the discovery lookup on its own, or as part of a Graph API batch call when batching is enabled
+     */
+    private Mono<BusinessDiscoveryDto> requestBusinessDiscovery(String instagramAccountId, String discoveryFields,
+                                                             String accessToken, String notFoundMessage) {
+        if (graphBatchEnabled) {
+            String relativeUrl = UriComponentsBuilder.fromPath(instagramAccountId)
+                    .queryParam("fields", discoveryFields)
+                    .build()
+                    .encode()
+                    .toUriString();
+            return graphBatchCollector.submit(accessToken, relativeUrl)
+                    .flatMap(body -> decodeBusinessDiscovery(body, notFoundMessage));
         }
 
-        return Mono.just(dto);
+        URI uri = UriComponentsBuilder.fromUriString(instagramApiBaseUrl)
+                .path("/" + instagramAccountId)
+                .queryParam("fields", discoveryFields)
+                .queryParam("access_token", accessToken)
+                .build()
+                .toUri();
+
+        return webClient.get()
+                .uri(uri)
+                .retrieve()
+                .bodyToMono(DataBuffer.class)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .flatMap(body -> decodeBusinessDiscovery(body, notFoundMessage));
     }
 
-    private BusinessDiscoveryDto.AccountInsightsDto calculateInsights(java.util.List<BusinessDiscoveryDto.MediaInsightDto> mediaList, Integer followersCount) {
-        if (mediaList.isEmpty() || followersCount == null || followersCount == 0) {
-            return null;
+    private Mono<BusinessDiscoveryDto> decodeBusinessDiscovery(byte[] body, String notFoundMessage) {
+        try {
+            BusinessDiscoveryDto dto = responseParser.parse(body);
+            return dto != null ? Mono.just(dto) : Mono.error(new BusinessDiscoveryNotFoundException(
+                    BusinessDiscoveryNotFoundException.Reason.NOT_BUSINESS_ACCOUNT, notFoundMessage));
+        } catch (IOException e) {
+            return Mono.error(new RuntimeException("Failed to decode business discovery response", e));
         }
-
-        long totalLikes = mediaList.stream()
-                .mapToLong(media -> media.getLikeCount() != null ? media.getLikeCount() : 0)
-                .sum();
-
-        long totalComments = mediaList.stream()
-                .mapToLong(media -> media.getCommentsCount() != null ? media.getCommentsCount() : 0)
-                .sum();
-
-        double averageEngagementRate = mediaList.stream()
-                .filter(media -> media.getEngagementRate() != null)
-                .mapToDouble(BusinessDiscoveryDto.MediaInsightDto::getEngagementRate)
-                .average()
-                .orElse(0.0);
-
-        return BusinessDiscoveryDto.AccountInsightsDto.builder()
-                .averageEngagementRate(averageEngagementRate)
-                .totalLikes(totalLikes)
-                .totalComments(totalComments)
-                .postsLast30Days(mediaList.size())
-                .build();
     }
 
-    // Helper methods for safe JSON parsing
-    private String getTextValue(JsonNode node, String fieldName) {
-        JsonNode field = node.get(fieldName);
-        return field != null && !field.isNull() ? field.asText() : null;
+    private Mono<BusinessDiscoveryDto> decodeBusinessDiscovery(DataBuffer body, String notFoundMessage) {
+        try (InputStream in = body.asInputStream(true)) {
+            BusinessDiscoveryDto dto = responseParser.parse(in);
+            return dto != null ? Mono.just(dto) : Mono.error(new BusinessDiscoveryNotFoundException(
+                    BusinessDiscoveryNotFoundException.Reason.NOT_BUSINESS_ACCOUNT, notFoundMessage));
+        } catch (IOException e) {
+            return Mono.error(new RuntimeException("Failed to decode business discovery response", e));
+        }
     }
 
-    private Integer getIntValue(JsonNode node, String fieldName) {
-        JsonNode field = node.get(fieldName);
-        return field != null && !field.isNull() ? field.asInt() : null;
+    private boolean isUnknownUser(Throwable error) {
+        return error instanceof WebClientResponseException response
+                && response.getStatusCode().is4xxClientError()
+                && responseParser.isUnknownUserError(response.getResponseBodyAsByteArray());
     }
 
-}
\ No newline at end of file
+    private static BusinessDiscoveryNotFoundException unknownUser(String targetUsername) {
+        return new BusinessDiscoveryNotFoundException(BusinessDiscoveryNotFoundException.Reason.NOT_FOUND,
+                "Instagram user " + targetUsername + " cannot be found. The username might be incorrect or the account is not a business or creator account.");
+    }
+}
@@ -0,0 +1,42 @@
+package com.instagram.businessdiscovery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Plain Jackson JSON, the format results were always stored in
+ */
+@Component
+public class JsonSearchResultCodec implements SearchResultCodec {
+
+    public static final byte FORMAT_VERSION = 1;
+
+    private final ObjectMapper objectMapper;
+
+    public JsonSearchResultCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte formatVersion() {
+        return FORMAT_VERSION;
+    }
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encode(BusinessDiscoveryDto result) throws IOException {
+        return objectMapper.writeValueAsBytes(result);
+    }
+
+    @Override
+    public BusinessDiscoveryDto decode(byte[] data, int offset) throws IOException {
+        return objectMapper.readValue(data, offset, data.length - offset, BusinessDiscoveryDto.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.domain.LatestDiscoveryResult;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.repository.LatestDiscoveryResultRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+/**
+ * Second cache tier below BusinessDiscoveryCache: the latest successful result per target,
+ * persisted so every searcher (and every restart) benefits from anyone's fresh lookup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LatestResultStore {
+
+    private final LatestDiscoveryResultRepository repository;
+    private final SearchResultCodecs codecs;
+
+    @Value("${instagram.api.business-discovery.shared-cache.ttl:1h}")
+    private Duration ttl;
+
+    /**
+     * Find the latest result for the key if it has not expired yet
+     */
+    public Optional<CachedDiscovery> find(DiscoveryKey key) {
+        LocalDateTime expiresBefore = LocalDateTime.now().minus(ttl);
+
+        return repository.findById(new LatestDiscoveryResult.Key(key.username(), key.includeMedia()))
+                .filter(latest -> latest.getFetchedAt().isAfter(expiresBefore))
+                .flatMap(latest -> {
+                    try {
+                        BusinessDiscoveryDto result = codecs.decode(latest.getSearchResultData(), latest.getSearchResult());
+                        return Optional.ofNullable(result)
+                                .map(decoded -> new CachedDiscovery(decoded, latest.getFetchedAt().atZone(ZoneId.systemDefault()).toInstant()));
+                    } catch (IOException e) {
+                        log.warn("Failed to decode latest result for target {}: {}", key.username(), e.getMessage());
+                        return Optional.empty();
+                    }
+                });
+    }
+
+    /**
+     * Record a successful result as the latest one for its target, unless a newer one is already stored
+     */
+    public void upsert(DiscoveryKey key, BusinessDiscoveryDto result, LocalDateTime fetchedAt) {
+        byte[] searchResultData;
+        try {
+            searchResultData = codecs.encode(result);
+        } catch (IOException e) {
+            log.error("Failed to encode latest result for target {}: {}", key.username(), e.getMessage());
+            return;
+        }
+        upsert(key, result.getId(), searchResultData, fetchedAt);
+    }
+
+    /**
+     * Record a result already encoded by SearchResultCodecs, such as the one of its search row,
+     * as the latest one for its target, unless a newer one is already stored
+     */
+    public void upsert(DiscoveryKey key, String targetInstagramId, byte[] searchResultData, LocalDateTime fetchedAt) {
+        if (repository.updateIfNewer(key.username(), key.includeMedia(), targetInstagramId, searchResultData, fetchedAt) > 0) {
+            return;
+        }
+        if (!repository.existsById(new LatestDiscoveryResult.Key(key.username(), key.includeMedia()))) {
+            try {
+                repository.save(LatestDiscoveryResult.builder()
+                        .targetUsername(key.username())
+                        .includeMedia(key.includeMedia())
+                        .targetInstagramId(targetInstagramId)
+                        .searchResultData(searchResultData)
+                        .fetchedAt(fetchedAt)
+                        .build());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Latest result for target {} was stored concurrently", key.username());
+            }
+        }
+        // The stored row is newer, or another searcher stored one since the update above,
+        // which may be older than this result
+        repository.updateIfNewer(key.username(), key.includeMedia(), targetInstagramId, searchResultData, fetchedAt);
+    }
+}
@@ -0,0 +1,13 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+
+import java.util.List;
+
+/**
+ * One page of a target account's media, newest first.
+ *
+ * @param after cursor of the next page, null on the last page
+ */
+public record MediaPage(Integer followersCount, List<BusinessDiscoveryDto.MediaInsightDto> posts, String after) {
+}
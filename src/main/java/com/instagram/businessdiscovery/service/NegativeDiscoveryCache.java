@@ -0,0 +1,101 @@
+package com.instagram.businessdiscovery.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Targets Graph API recently had no business discovery data for, by username, so repeat lookups
+ * of personal or misspelled handles fail before they cost a search slot or a Graph API call.
+ * Each {@link BusinessDiscoveryNotFoundException.Reason} has its own TTL, shorter than the
+ * positive caches since accounts can be created or switched to business at any time.
+ * Transient failures are never cached.
+ */
+@Component
+@Slf4j
+public class NegativeDiscoveryCache {
+
+    private final Cache<String, Entry> cache;
+    private final Counter hits;
+    private final Counter stored;
+
+    @Value("${instagram.api.business-discovery.negative-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${instagram.api.business-discovery.negative-cache.not-found-ttl:10m}")
+    private Duration notFoundTtl;
+
+    @Value("${instagram.api.business-discovery.negative-cache.not-business-ttl:30m}")
+    private Duration notBusinessTtl;
+
+    public NegativeDiscoveryCache(MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String username, Entry entry, long currentTime) {
+                        return ttl(entry.reason()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String username, Entry entry, long currentTime, long currentDuration) {
+                        return ttl(entry.reason()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String username, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(100_000)
+                .build();
+        this.hits = negativeCounter(meterRegistry, "hit");
+        this.stored = negativeCounter(meterRegistry, "stored");
+    }
+
+    private static Counter negativeCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("instagram.discovery.negative-cache")
+                .description("Business discovery lookups answered from, or added to, the negative cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The failure to repeat for the target, or null when Graph API should be asked
+     */
+    public BusinessDiscoveryNotFoundException find(String targetUsername) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(DiscoveryKey.normalizeUsername(targetUsername));
+        if (entry == null) {
+            return null;
+        }
+        hits.increment();
+        return new BusinessDiscoveryNotFoundException(entry.reason(), entry.message());
+    }
+
+    /**
+     * Remember the failure if it says the target has no business discovery data
+     */
+    public void record(String targetUsername, Throwable error) {
+        if (enabled && error instanceof BusinessDiscoveryNotFoundException notFound) {
+            cache.put(DiscoveryKey.normalizeUsername(targetUsername), new Entry(notFound.getReason(), notFound.getMessage()));
+            stored.increment();
+            log.debug("Caching {} for target {}", notFound.getReason(), targetUsername);
+        }
+    }
+
+    private Duration ttl(BusinessDiscoveryNotFoundException.Reason reason) {
+        return reason == BusinessDiscoveryNotFoundException.Reason.NOT_FOUND ? notFoundTtl : notBusinessTtl;
+    }
+
+    private record Entry(BusinessDiscoveryNotFoundException.Reason reason, String message) {
+    }
+}
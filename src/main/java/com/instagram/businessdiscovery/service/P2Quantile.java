@@ -0,0 +1,99 @@
+package com.instagram.businessdiscovery.service;
+
+import java.util.Arrays;
+
+/**
+ * Streaming estimate of one quantile with the P² algorithm (Jain and Chlamtac, 1985): five
+ * marker heights are adjusted as observations arrive, so memory stays constant however many
+ * values are added. The first five observations are kept as they are and answered exactly.
+ */
+final class P2Quantile {
+
+    private final double quantile;
+    private final double[] heights = new double[5];
+    private final int[] positions = {0, 1, 2, 3, 4};
+    private final double[] desired;
+    private final double[] increments;
+    private int count;
+
+    P2Quantile(double quantile) {
+        this.quantile = quantile;
+        this.desired = new double[]{0, 2 * quantile, 4 * quantile, 2 + 2 * quantile, 4};
+        this.increments = new double[]{0, quantile / 2, quantile, (1 + quantile) / 2, 1};
+    }
+
+    void add(double value) {
+        if (count < 5) {
+            heights[count++] = value;
+            if (count == 5) {
+                Arrays.sort(heights);
+            }
+            return;
+        }
+        count++;
+
+        int cell;
+        if (value < heights[0]) {
+            heights[0] = value;
+            cell = 0;
+        } else if (value >= heights[4]) {
+            heights[4] = value;
+            cell = 3;
+        } else {
+            cell = 0;
+            while (value >= heights[cell + 1]) {
+                cell++;
+            }
+        }
+        for (int i = cell + 1; i < 5; i++) {
+            positions[i]++;
+        }
+        for (int i = 0; i < 5; i++) {
+            desired[i] += increments[i];
+        }
+
+        // Move the three middle markers towards their desired positions
+        for (int i = 1; i < 4; i++) {
+            double offset = desired[i] - positions[i];
+            if ((offset >= 1 && positions[i + 1] - positions[i] > 1)
+                    || (offset <= -1 && positions[i - 1] - positions[i] < -1)) {
+                int step = offset > 0 ? 1 : -1;
+                double height = parabolic(i, step);
+                heights[i] = heights[i - 1] < height && height < heights[i + 1] ? height : linear(i, step);
+                positions[i] += step;
+            }
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Current estimate, or NaN before the first observation
+     */
+    double value() {
+        if (count >= 5) {
+            return heights[2];
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double[] sorted = Arrays.copyOf(heights, count);
+        Arrays.sort(sorted);
+        double rank = quantile * (count - 1);
+        int lower = (int) rank;
+        int upper = Math.min(lower + 1, count - 1);
+        return sorted[lower] + (rank - lower) * (sorted[upper] - sorted[lower]);
+    }
+
+    private double parabolic(int i, int step) {
+        return heights[i] + (double) step / (positions[i + 1] - positions[i - 1])
+                * ((positions[i] - positions[i - 1] + step) * (heights[i + 1] - heights[i]) / (positions[i + 1] - positions[i])
+                + (positions[i + 1] - positions[i] - step) * (heights[i] - heights[i - 1]) / (positions[i] - positions[i - 1]));
+    }
+
+    private double linear(int i, int step) {
+        return heights[i] + step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+    }
+}
@@ -0,0 +1,49 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps monthly partitions of the search table created ahead of time, on startup and daily,
+ * so searches never fall into the default partition. create_search_partitions skips existing
+ * months and serializes concurrent calls with an advisory lock, so several instances may run
+ * it at once.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchPartitionMaintainer {
+
+    private final BusinessDiscoverySearchRepository searchRepository;
+
+    @Value("${instagram.api.business-discovery.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${instagram.api.business-discovery.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${instagram.api.business-discovery.partitions.maintenance-cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // The current month plus months-ahead following ones
+            int created = searchRepository.createMonthlyPartitions(LocalDate.now().withDayOfMonth(1), monthsAhead + 1);
+            if (created > 0) {
+                log.info("Created {} monthly search partitions", created);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to create monthly search partitions: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository;
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository.SearchTimestamp;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user sliding-window limiter for business discovery searches. State is held in
+ * memory with one lock per user, so acceptance is atomic and never touches the database.
+ * The windows are rebuilt from the search table on startup and reconciled periodically.
+ */
+@Component
+@Slf4j
+public class SearchRateLimiter {
+
+    private static final Duration WINDOW = Duration.ofHours(1);
+
+    private final BusinessDiscoverySearchRepository searchRepository;
+    private final Clock clock;
+    private final Map<Long, UserWindow> windows = new ConcurrentHashMap<>();
+
+    @Value("${instagram.api.business-discovery.rate-limit:200}")
+    private int hourlyRateLimit;
+
+    @Autowired
+    public SearchRateLimiter(BusinessDiscoverySearchRepository searchRepository) {
+        this(searchRepository, Clock.systemDefaultZone());
+    }
+
+    SearchRateLimiter(BusinessDiscoverySearchRepository searchRepository, Clock clock) {
+        this.searchRepository = searchRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * Take one search slot for the user, returns false if the hourly limit is reached
+     */
+    public boolean tryAcquire(Long userId) {
+        return tryAcquire(userId, 0);
+    }
+
+    /**
+     * Take one search slot for background work only if at least reserved slots stay free
+     * for the user's own searches afterwards
+     */
+    public boolean tryAcquireSpare(Long userId, int reserved) {
+        return tryAcquire(userId, Math.max(0, reserved));
+    }
+
+    private boolean tryAcquire(Long userId, int reserved) {
+        while (true) {
+            UserWindow window = windows.computeIfAbsent(userId, id -> new UserWindow());
+            window.lock.lock();
+            try {
+                if (window.retired) {
+                    continue;
+                }
+                long now = clock.millis();
+                window.evictBefore(now - WINDOW.toMillis());
+                if (window.timestamps.size() + reserved >= hourlyRateLimit) {
+                    return false;
+                }
+                window.timestamps.addLast(now);
+                return true;
+            } finally {
+                window.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Number of searches the user made in the last hour
+     */
+    public long countRecent(Long userId) {
+        UserWindow window = windows.get(userId);
+        if (window == null) {
+            return 0;
+        }
+        window.lock.lock();
+        try {
+            window.evictBefore(clock.millis() - WINDOW.toMillis());
+            return window.timestamps.size();
+        } finally {
+            window.lock.unlock();
+        }
+    }
+
+    public long remaining(Long userId) {
+        return Math.max(0, hourlyRateLimit - countRecent(userId));
+    }
+
+    public int getHourlyRateLimit() {
+        return hourlyRateLimit;
+    }
+
+    @PostConstruct
+    void rebuild() {
+        Map<Long, List<Long>> persisted = loadPersistedWindows();
+        persisted.forEach((userId, timestamps) -> {
+            UserWindow window = new UserWindow();
+            window.timestamps.addAll(timestamps);
+            windows.put(userId, window);
+        });
+        log.info("Rebuilt search rate limiter for {} users", persisted.size());
+    }
+
+    /**
+     * Bring the in-memory windows in line with the search table. A window is only ever grown
+     * from the table (searches made by other instances), and idle windows are dropped.
+     */
+    @Scheduled(fixedDelayString = "${instagram.api.business-discovery.rate-limiter.reconcile-interval:PT5M}",
+            initialDelayString = "${instagram.api.business-discovery.rate-limiter.reconcile-interval:PT5M}")
+    public void reconcile() {
+        Map<Long, List<Long>> persisted = loadPersistedWindows();
+        long cutoff = clock.millis() - WINDOW.toMillis();
+
+        persisted.forEach((userId, timestamps) -> {
+            UserWindow window = windows.computeIfAbsent(userId, id -> new UserWindow());
+            window.lock.lock();
+            try {
+                window.evictBefore(cutoff);
+                if (!window.retired && timestamps.size() > window.timestamps.size()) {
+                    window.timestamps.clear();
+                    window.timestamps.addAll(timestamps);
+                }
+            } finally {
+                window.lock.unlock();
+            }
+        });
+
+        for (Map.Entry<Long, UserWindow> entry : windows.entrySet()) {
+            UserWindow window = entry.getValue();
+            window.lock.lock();
+            try {
+                window.evictBefore(cutoff);
+                if (window.timestamps.isEmpty()) {
+                    window.retired = true;
+                    windows.remove(entry.getKey(), window);
+                }
+            } finally {
+                window.lock.unlock();
+            }
+        }
+        log.debug("Reconciled search rate limiter, tracking {} users", windows.size());
+    }
+
+    private Map<Long, List<Long>> loadPersistedWindows() {
+        LocalDateTime since = LocalDateTime.now(clock).minus(WINDOW);
+        ZoneId zone = clock.getZone();
+
+        Map<Long, List<Long>> persisted = new HashMap<>();
+        for (SearchTimestamp search : searchRepository.findSearchTimestampsSince(since)) {
+            persisted.computeIfAbsent(search.getSearcherUserId(), id -> new ArrayList<>())
+                    .add(search.getCreatedAt().atZone(zone).toInstant().toEpochMilli());
+        }
+        return persisted.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().stream().sorted().toList()));
+    }
+
+    private static class UserWindow {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Deque<Long> timestamps = new ArrayDeque<>();
+        private boolean retired;
+
+        private void evictBefore(long cutoff) {
+            while (!timestamps.isEmpty() && timestamps.peekFirst() < cutoff) {
+                timestamps.pollFirst();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+
+import java.io.IOException;
+
+/**
+ * Binary encoding of persisted business discovery results. Every encoded payload starts
+ * with the codec's format version byte, so rows written in different formats can coexist.
+ */
+public interface SearchResultCodec {
+
+    /**
+     * Format version byte written in front of the payload
+     */
+    byte formatVersion();
+
+    /**
+     * Name used to select this codec in configuration
+     */
+    String name();
+
+    /**
+     * Encode the result, without the format version byte
+     */
+    byte[] encode(BusinessDiscoveryDto result) throws IOException;
+
+    /**
+     * Decode a payload previously produced by encode, starting at the given offset
+     */
+    BusinessDiscoveryDto decode(byte[] data, int offset) throws IOException;
+}
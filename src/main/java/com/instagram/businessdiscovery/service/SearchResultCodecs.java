@@ -0,0 +1,66 @@
+package com.instagram.businessdiscovery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes stored results with the configured codec and decodes any supported format,
+ * including plain JSON text written before results were stored in binary form.
+ */
+@Component
+@Slf4j
+public class SearchResultCodecs {
+
+    private final Map<Byte, SearchResultCodec> codecsByVersion = new HashMap<>();
+    private final SearchResultCodec writeCodec;
+    private final ObjectMapper objectMapper;
+
+    public SearchResultCodecs(List<SearchResultCodec> codecs, ObjectMapper objectMapper,
+                              @Value("${instagram.api.business-discovery.storage.format:smile-deflate}") String format) {
+        this.objectMapper = objectMapper;
+        for (SearchResultCodec codec : codecs) {
+            codecsByVersion.put(codec.formatVersion(), codec);
+        }
+        this.writeCodec = codecs.stream()
+                .filter(codec -> codec.name().equals(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown search result storage format: " + format));
+        log.info("Storing search results as {}", writeCodec.name());
+    }
+
+    /**
+     * Encode a result with the configured codec, prefixed with its format version byte
+     */
+    public byte[] encode(BusinessDiscoveryDto result) throws IOException {
+        byte[] payload = writeCodec.encode(result);
+        byte[] data = new byte[payload.length + 1];
+        data[0] = writeCodec.formatVersion();
+        System.arraycopy(payload, 0, data, 1, payload.length);
+        return data;
+    }
+
+    /**
+     * Decode a stored result from its binary column, or from the legacy JSON text column
+     */
+    public BusinessDiscoveryDto decode(byte[] data, String legacyJson) throws IOException {
+        if (data != null && data.length > 0) {
+            SearchResultCodec codec = codecsByVersion.get(data[0]);
+            if (codec == null) {
+                throw new IOException("Unsupported search result format version: " + data[0]);
+            }
+            return codec.decode(data, 1);
+        }
+        if (legacyJson != null) {
+            return objectMapper.readValue(legacyJson, BusinessDiscoveryDto.class);
+        }
+        return null;
+    }
+}
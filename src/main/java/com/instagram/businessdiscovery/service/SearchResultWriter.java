@@ -0,0 +1,256 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.domain.BusinessDiscoverySearch;
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence of searches, keeping database round trips off the search response.
+ * Searches are queued and one writer thread inserts them in JDBC batches (ids come from a pooled
+ * sequence, so Hibernate can batch them), once batch-size searches are waiting or flush-interval
+ * after the first one. Per-user counters are then updated once per user and batch, and the
+ * shared latest results once per target.
+ * <ul>
+ *     <li>queue full: the submitter waits up to enqueue-timeout, then writes its search itself</li>
+ *     <li>shutdown: the queue is drained before the database goes away</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class SearchResultWriter {
+
+    // How often an idle writer checks for shutdown
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final BusinessDiscoverySearchRepository searchRepository;
+    private final UserSearchStatsService statsService;
+    private final LatestResultStore latestResultStore;
+    private final BlockingQueue<PendingSearch> queue;
+    private final Timer flushes;
+    private final Counter written;
+    private final Counter failed;
+    private final Counter callerRuns;
+    private volatile boolean running;
+    private Thread writer;
+
+    @Value("${instagram.api.business-discovery.write-behind.enabled:true}")
+    private boolean enabled;
+
+    @Value("${instagram.api.business-discovery.write-behind.batch-size:50}")
+    private int batchSize;
+
+    @Value("${instagram.api.business-discovery.write-behind.flush-interval:500ms}")
+    private Duration flushInterval;
+
+    @Value("${instagram.api.business-discovery.write-behind.enqueue-timeout:1s}")
+    private Duration enqueueTimeout;
+
+    @Value("${instagram.api.business-discovery.write-behind.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
+
+    public SearchResultWriter(BusinessDiscoverySearchRepository searchRepository, UserSearchStatsService statsService,
+                              LatestResultStore latestResultStore, MeterRegistry meterRegistry,
+                              @Value("${instagram.api.business-discovery.write-behind.queue-capacity:5000}") int queueCapacity) {
+        this.searchRepository = searchRepository;
+        this.statsService = statsService;
+        this.latestResultStore = latestResultStore;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("instagram.search.write-behind.queue", queue, BlockingQueue::size)
+                .description("Searches waiting to be written")
+                .register(meterRegistry);
+        this.flushes = Timer.builder("instagram.search.write-behind.flush")
+                .description("Batch writes of queued searches")
+                .register(meterRegistry);
+        this.written = rowCounter(meterRegistry, "written");
+        this.failed = rowCounter(meterRegistry, "failed");
+        this.callerRuns = rowCounter(meterRegistry, "caller_runs");
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("instagram.search.write-behind.rows")
+                .description("Searches written behind, failed, or written by the submitter on a full queue")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "search-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop taking searches and write the queued ones, waiting up to shutdown-timeout
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(shutdownTimeout.toMillis());
+        if (writer.isAlive()) {
+            log.warn("Search writer did not finish within {}, {} searches not written", shutdownTimeout, queue.size());
+            return;
+        }
+        // Searches submitted while the writer was finishing
+        List<PendingSearch> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest);
+        }
+        log.info("Search writer flushed and stopped");
+    }
+
+    /**
+     * Queue a search for writing. A successful search carries its result, with the time it was
+     * fetched, and its key; unless a newer one is stored, it becomes the latest shared result of
+     * the target.
+     */
+    public void submit(BusinessDiscoverySearch search, DiscoveryKey key, CachedDiscovery discovery) {
+        PendingSearch pending = new PendingSearch(search, key, discovery);
+        if (running) {
+            try {
+                if (queue.offer(pending, enqueueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+                callerRuns.increment();
+                log.debug("Search write queue full, writing search for {} directly", search.getTargetUsername());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        write(List.of(pending));
+    }
+
+    private void drain() {
+        List<PendingSearch> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSearch first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0 || !running) {
+                        break;
+                    }
+                    PendingSearch next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                log.warn("Search writer interrupted with {} searches queued", queue.size());
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Search writer failed on a batch of {}: {}", batch.size(), e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void write(List<PendingSearch> batch) {
+        flushes.record(() -> {
+            List<PendingSearch> saved = insert(batch);
+            recordStats(saved);
+            upsertLatest(saved);
+        });
+    }
+
+    private List<PendingSearch> insert(List<PendingSearch> batch) {
+        try {
+            searchRepository.saveAll(batch.stream().map(PendingSearch::search).toList());
+            written.increment(batch.size());
+            return batch;
+        } catch (RuntimeException e) {
+            log.warn("Batch insert of {} searches failed, writing them one by one: {}", batch.size(), e.getMessage());
+        }
+
+        List<PendingSearch> saved = new ArrayList<>(batch.size());
+        for (PendingSearch pending : batch) {
+            // The failed batch may have assigned ids that were never committed
+            pending.search().setId(null);
+            try {
+                searchRepository.save(pending.search());
+                written.increment();
+                saved.add(pending);
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.error("Failed to write search of {} by user {}: {}", pending.search().getTargetUsername(),
+                        pending.search().getSearcherUser().getId(), e.getMessage());
+            }
+        }
+        return saved;
+    }
+
+    private void recordStats(List<PendingSearch> saved) {
+        Map<Long, UserSearchStatsService.SearchTotals> byUser = new HashMap<>();
+        for (PendingSearch pending : saved) {
+            BusinessDiscoverySearch search = pending.search();
+            boolean successful = search.getSearchStatus() == BusinessDiscoverySearch.SearchStatus.SUCCESS;
+            byUser.merge(search.getSearcherUser().getId(),
+                    new UserSearchStatsService.SearchTotals(1, successful ? 1 : 0, successful ? 0 : 1, search.getCreatedAt()),
+                    UserSearchStatsService.SearchTotals::plus);
+        }
+        byUser.forEach((userId, batchTotals) -> {
+            try {
+                statsService.recordSearches(userId, batchTotals);
+            } catch (RuntimeException e) {
+                log.error("Failed to update search statistics of user {}: {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    private void upsertLatest(List<PendingSearch> saved) {
+        Map<DiscoveryKey, PendingSearch> newest = new HashMap<>();
+        for (PendingSearch pending : saved) {
+            // Successful searches carry their encoded result, which the latest row reuses
+            if (pending.discovery() != null && pending.search().getSearchResultData() != null) {
+                newest.merge(pending.key(), pending, (current, candidate) ->
+                        candidate.discovery().fetchedAt().isAfter(current.discovery().fetchedAt()) ? candidate : current);
+            }
+        }
+        newest.forEach((key, pending) -> {
+            try {
+                latestResultStore.upsert(key, pending.search().getTargetInstagramId(), pending.search().getSearchResultData(),
+                        pending.discovery().fetchedAtLocal());
+            } catch (RuntimeException e) {
+                log.error("Failed to store latest result for target {}: {}", key.username(), e.getMessage());
+            }
+        });
+    }
+
+    record PendingSearch(BusinessDiscoverySearch search, DiscoveryKey key, CachedDiscovery discovery) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.instagram.businessdiscovery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Smile (binary JSON) with shared property names, deflate-compressed. Media captions and
+ * URLs repeat heavily across posts, so this is several times smaller than the JSON text.
+ */
+@Component
+public class SmileSearchResultCodec implements SearchResultCodec {
+
+    public static final byte FORMAT_VERSION = 2;
+
+    private final ObjectMapper smileMapper;
+
+    public SmileSearchResultCodec(ObjectMapper objectMapper) {
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+    }
+
+    @Override
+    public byte formatVersion() {
+        return FORMAT_VERSION;
+    }
+
+    @Override
+    public String name() {
+        return "smile-deflate";
+    }
+
+    @Override
+    public byte[] encode(BusinessDiscoveryDto result) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(1024);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream compressed = new DeflaterOutputStream(output, deflater)) {
+            smileMapper.writeValue(compressed, result);
+        } finally {
+            deflater.end();
+        }
+        return output.toByteArray();
+    }
+
+    @Override
+    public BusinessDiscoveryDto decode(byte[] data, int offset) throws IOException {
+        Inflater inflater = new Inflater();
+        try (InputStream decompressed = new InflaterInputStream(
+                new ByteArrayInputStream(data, offset, data.length - offset), inflater)) {
+            return smileMapper.readValue(decompressed, BusinessDiscoveryDto.class);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.instagram.businessdiscovery.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.instagram.businessdiscovery.domain.BusinessDiscoverySearch;
+import com.instagram.businessdiscovery.domain.UserSearchStats;
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository;
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository.StatusCount;
+import com.instagram.businessdiscovery.repository.UserSearchStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user search counters kept in their own table and cached in memory, so reading
+ * statistics costs the same no matter how long a user's search history is.
+ * <p>
+ * Recording searches invalidates the cached totals rather than patching them, leaving a
+ * stamped marker behind, so a load that read the table before the increment is not cached.
+ */
+@Service
+@Slf4j
+public class UserSearchStatsService {
+
+    private final UserSearchStatsRepository statsRepository;
+    private final BusinessDiscoverySearchRepository searchRepository;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Cache<Long, CachedTotals> cache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    public UserSearchStatsService(UserSearchStatsRepository statsRepository, BusinessDiscoverySearchRepository searchRepository) {
+        this.statsRepository = statsRepository;
+        this.searchRepository = searchRepository;
+    }
+
+    /**
+     * Get the search totals for a user
+     */
+    public SearchTotals getTotals(Long userId) {
+        long loadStarted = invalidations.get();
+        CachedTotals cached = cache.getIfPresent(userId);
+        if (cached != null && cached.totals() != null) {
+            return cached.totals();
+        }
+        // Loaded outside the cache, so a slow backfill does not hold Caffeine's lock on the entry
+        SearchTotals loaded = loadTotals(userId);
+        CachedTotals installed = cache.asMap().compute(userId, (id, current) ->
+                current == null || (current.totals() == null && current.invalidation() <= loadStarted)
+                        ? new CachedTotals(loaded, 0) : current);
+        // Not cached when searches were recorded during the load; the next read loads again
+        return installed.totals() != null ? installed.totals() : loaded;
+    }
+
+    /**
+     * Count a search that has just been persisted
+     */
+    public void recordSearch(Long userId, BusinessDiscoverySearch.SearchStatus status, LocalDateTime searchedAt) {
+        boolean successful = status == BusinessDiscoverySearch.SearchStatus.SUCCESS;
+        recordSearches(userId, new SearchTotals(1, successful ? 1 : 0, successful ? 0 : 1, searchedAt));
+    }
+
+    /**
+     * Count several searches of a user that have just been persisted, with a single update
+     */
+    public void recordSearches(Long userId, SearchTotals searches) {
+        if (statsRepository.increment(userId, searches.successfulSearches(), searches.failedSearches(),
+                searches.lastSearchAt()) == 0) {
+            // First search since statistics were introduced: the recount already includes these searches
+            backfill(userId);
+        }
+        cache.put(userId, new CachedTotals(null, invalidations.incrementAndGet()));
+    }
+
+    private SearchTotals loadTotals(Long userId) {
+        return statsRepository.findById(userId)
+                .map(SearchTotals::of)
+                .orElseGet(() -> backfill(userId));
+    }
+
+    /**
+     * Build the counters for a user from the search table once and store them
+     */
+    private SearchTotals backfill(Long userId) {
+        UserSearchStats stats = UserSearchStats.builder().userId(userId).build();
+        for (StatusCount count : searchRepository.countSearchesByStatus(userId)) {
+            stats.setTotalSearches(stats.getTotalSearches() + count.getSearchCount());
+            if (count.getSearchStatus() == BusinessDiscoverySearch.SearchStatus.SUCCESS) {
+                stats.setSuccessfulSearches(count.getSearchCount());
+            } else {
+                stats.setFailedSearches(stats.getFailedSearches() + count.getSearchCount());
+            }
+            if (stats.getLastSearchAt() == null || count.getLastSearchAt().isAfter(stats.getLastSearchAt())) {
+                stats.setLastSearchAt(count.getLastSearchAt());
+            }
+        }
+
+        try {
+            statsRepository.save(stats);
+            log.debug("Backfilled search statistics for user {}: {} searches", userId, stats.getTotalSearches());
+        } catch (DataIntegrityViolationException e) {
+            // Another request created the row concurrently, which may have been counted since
+            log.debug("Search statistics for user {} were created concurrently", userId);
+            return statsRepository.findById(userId).map(SearchTotals::of).orElseGet(() -> SearchTotals.of(stats));
+        }
+        return SearchTotals.of(stats);
+    }
+
+    /**
+     * Cached totals, or with null totals the stamp of the invalidation that replaced them
+     */
+    private record CachedTotals(SearchTotals totals, long invalidation) {
+    }
+
+    public record SearchTotals(long totalSearches, long successfulSearches, long failedSearches, LocalDateTime lastSearchAt) {
+
+        static SearchTotals of(UserSearchStats stats) {
+            return new SearchTotals(stats.getTotalSearches(), stats.getSuccessfulSearches(),
+                    stats.getFailedSearches(), stats.getLastSearchAt());
+        }
+
+        SearchTotals plus(SearchTotals other) {
+            LocalDateTime last = lastSearchAt == null || (other.lastSearchAt != null && other.lastSearchAt.isAfter(lastSearchAt))
+                    ? other.lastSearchAt : lastSearchAt;
+            return new SearchTotals(totalSearches + other.totalSearches,
+                    successfulSearches + other.successfulSearches,
+                    failedSearches + other.failedSearches,
+                    last);
+        }
+    }
+}
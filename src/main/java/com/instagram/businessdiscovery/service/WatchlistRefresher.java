@@ -0,0 +1,170 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.domain.LatestDiscoveryResult;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.repository.LatestDiscoveryResultRepository;
+import com.instagram.businessdiscovery.repository.WatchlistEntryRepository;
+import com.instagram.businessdiscovery.repository.WatchlistEntryRepository.Watch;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Refreshes watched targets before their shared results expire, so searches for them are
+ * answered from the cache. Each refresh uses the token of one of the target's watchers and
+ * takes a slot from that watcher's hourly search budget, but only while a reserved share of
+ * the budget stays free for the watcher's own searches. Stale, widely watched targets go first.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WatchlistRefresher {
+
+    // Ages beyond this no longer raise a target's priority
+    private static final Duration MAX_PRIORITY_AGE = Duration.ofDays(1);
+
+    private final WatchlistEntryRepository watchlistRepository;
+    private final LatestDiscoveryResultRepository latestResultRepository;
+    private final InstagramApiService instagramApiService;
+    private final LatestResultStore latestResultStore;
+    private final AccountMetricsService accountMetricsService;
+    private final SearchRateLimiter rateLimiter;
+    private final Scheduler jpaScheduler;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${instagram.api.business-discovery.watchlist.enabled:true}")
+    private boolean enabled;
+
+    @Value("${instagram.api.business-discovery.watchlist.refresh-after:45m}")
+    private Duration refreshAfter;
+
+    @Value("${instagram.api.business-discovery.watchlist.reserved-share:0.5}")
+    private double reservedShare;
+
+    @Value("${instagram.api.business-discovery.watchlist.max-per-run:100}")
+    private int maxPerRun;
+
+    @Value("${instagram.api.business-discovery.watchlist.concurrency:4}")
+    private int concurrency;
+
+    @Scheduled(fixedDelayString = "${instagram.api.business-discovery.watchlist.refresh-interval:PT5M}",
+            initialDelayString = "${instagram.api.business-discovery.watchlist.refresh-interval:PT5M}")
+    public void refreshWatched() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Candidate> candidates = plan(watchlistRepository.findAllWatches(), now);
+        if (candidates.isEmpty()) {
+            return;
+        }
+        log.debug("Refreshing {} watched targets", candidates.size());
+
+        int reserved = (int) Math.ceil(rateLimiter.getHourlyRateLimit() * reservedShare);
+        Flux.fromIterable(candidates)
+                .flatMap(candidate -> refresh(candidate, reserved), concurrency)
+                .then()
+                .block();
+    }
+
+    /**
+     * Targets due for a refresh, most urgent first: the age of the latest shared result times
+     * the number of watchers. A target watched with media also covers its plain profile.
+     */
+    List<Candidate> plan(List<Watch> watches, LocalDateTime now) {
+        Map<DiscoveryKey, List<Watch>> watchersByKey = new LinkedHashMap<>();
+        for (Watch watch : watches) {
+            watchersByKey.computeIfAbsent(DiscoveryKey.of(watch.getTargetUsername(), watch.getIncludeMedia()),
+                    key -> new ArrayList<>()).add(watch);
+        }
+        for (DiscoveryKey key : new ArrayList<>(watchersByKey.keySet())) {
+            if (!key.includeMedia() && watchersByKey.containsKey(DiscoveryKey.of(key.username(), true))) {
+                watchersByKey.get(DiscoveryKey.of(key.username(), true)).addAll(watchersByKey.remove(key));
+            }
+        }
+
+        Map<DiscoveryKey, LocalDateTime> fetchedAt = new HashMap<>();
+        latestResultRepository.findAllById(watchersByKey.keySet().stream()
+                        .map(key -> new LatestDiscoveryResult.Key(key.username(), key.includeMedia()))
+                        .toList())
+                .forEach(latest -> fetchedAt.put(DiscoveryKey.of(latest.getTargetUsername(), latest.isIncludeMedia()),
+                        latest.getFetchedAt()));
+
+        List<Candidate> candidates = new ArrayList<>();
+        watchersByKey.forEach((key, watchers) -> {
+            LocalDateTime fetched = fetchedAt.get(key);
+            Duration age = fetched != null ? Duration.between(fetched, now) : MAX_PRIORITY_AGE;
+            if (age.compareTo(refreshAfter) < 0) {
+                return;
+            }
+            long ageSeconds = (age.compareTo(MAX_PRIORITY_AGE) > 0 ? MAX_PRIORITY_AGE : age).toSeconds();
+            candidates.add(new Candidate(key, watchers, ageSeconds * watchers.size()));
+        });
+        candidates.sort(Comparator.comparingLong(Candidate::priority).reversed());
+        return candidates.size() > maxPerRun ? candidates.subList(0, maxPerRun) : candidates;
+    }
+
+    private Mono<Void> refresh(Candidate candidate, int reserved) {
+        return Mono.defer(() -> {
+            Watch watcher = takeSpareSlot(candidate.watchers(), reserved);
+            if (watcher == null) {
+                count("no_budget");
+                return Mono.empty();
+            }
+            DiscoveryKey key = candidate.key();
+            return instagramApiService.refreshBusinessDiscovery(watcher.getInstagramId(), key.username(),
+                            watcher.getAccessToken(), key.includeMedia())
+                    .flatMap(result -> Mono.fromRunnable(() -> store(key, result)).subscribeOn(jpaScheduler))
+                    .doOnSuccess(ignored -> count("success"))
+                    .onErrorResume(error -> {
+                        count("failed");
+                        log.warn("Watchlist refresh of {} failed: {}", key, error.getMessage());
+                        return Mono.empty();
+                    })
+                    .then();
+        });
+    }
+
+    /**
+     * The watcher with the most spare budget that could give up a search slot, or null
+     */
+    private Watch takeSpareSlot(List<Watch> watchers, int reserved) {
+        List<Watch> byRemaining = new ArrayList<>(watchers);
+        byRemaining.sort(Comparator.comparingLong((Watch watch) -> rateLimiter.remaining(watch.getUserId())).reversed());
+        for (Watch watcher : byRemaining) {
+            if (rateLimiter.tryAcquireSpare(watcher.getUserId(), reserved)) {
+                return watcher;
+            }
+        }
+        return null;
+    }
+
+    private void store(DiscoveryKey key, BusinessDiscoveryDto result) {
+        LocalDateTime fetchedAt = LocalDateTime.now();
+        latestResultStore.upsert(key, result, fetchedAt);
+        accountMetricsService.record(result, fetchedAt);
+        watchlistRepository.markRefreshed(key.username(), fetchedAt);
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("instagram.watchlist.refreshes", "outcome", outcome).increment();
+    }
+
+    record Candidate(DiscoveryKey key, List<Watch> watchers, long priority) {
+    }
+}
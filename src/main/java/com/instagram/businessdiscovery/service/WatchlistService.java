@@ -0,0 +1,80 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.domain.User;
+import com.instagram.businessdiscovery.domain.WatchlistEntry;
+import com.instagram.businessdiscovery.dto.WatchlistEntryDto;
+import com.instagram.businessdiscovery.repository.WatchlistEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-user watchlists of targets that WatchlistRefresher keeps warm
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WatchlistService {
+
+    private final WatchlistEntryRepository repository;
+
+    @Value("${instagram.api.business-discovery.watchlist.max-size:50}")
+    private int maxSize;
+
+    @Transactional(readOnly = true)
+    public List<WatchlistEntryDto> getWatchlist(User user) {
+        return repository.findByUserId(user.getId());
+    }
+
+    /**
+     * Add the target to the user's watchlist. Watching a target again with media upgrades the entry.
+     */
+    @Transactional
+    public WatchlistEntryDto watch(User user, String targetUsername, boolean includeMedia) {
+        String username = DiscoveryKey.normalizeUsername(targetUsername);
+        if (username.isEmpty()) {
+            throw new IllegalArgumentException("Target username is required");
+        }
+
+        Optional<WatchlistEntry> existing = repository.findByUserIdAndTargetUsername(user.getId(), username);
+        WatchlistEntry entry;
+        if (existing.isPresent()) {
+            entry = existing.get();
+            entry.setIncludeMedia(entry.isIncludeMedia() || includeMedia);
+        } else {
+            if (repository.countByUserId(user.getId()) >= maxSize) {
+                throw new IllegalArgumentException("Watchlist is full. Maximum " + maxSize + " targets per user.");
+            }
+            entry = repository.save(WatchlistEntry.builder()
+                    .user(user)
+                    .targetUsername(username)
+                    .includeMedia(includeMedia)
+                    .build());
+            log.info("User {} is now watching {}", user.getUsername(), username);
+        }
+        return toDto(entry);
+    }
+
+    /**
+     * Remove the target from the user's watchlist, returns false if it was not watched
+     */
+    @Transactional
+    public boolean unwatch(User user, String targetUsername) {
+        return repository.deleteByUserIdAndTargetUsername(user.getId(), DiscoveryKey.normalizeUsername(targetUsername)) > 0;
+    }
+
+    private static WatchlistEntryDto toDto(WatchlistEntry entry) {
+        return WatchlistEntryDto.builder()
+                .id(entry.getId())
+                .targetUsername(entry.getTargetUsername())
+                .includeMedia(entry.isIncludeMedia())
+                .lastRefreshedAt(entry.getLastRefreshedAt())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+}
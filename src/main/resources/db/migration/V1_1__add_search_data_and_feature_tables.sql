@@ -0,0 +1,54 @@
+-- Columns, sequence and tables the entities gained on top of the baseline, before the search
+-- table is partitioned in V2.
+
+-- Encoded results; search_result keeps the plain JSON of older rows
+ALTER TABLE business_discovery_searches ADD COLUMN search_result_data bytea;
+
+-- Pooled search ids instead of IDENTITY, so the search writer's inserts can be JDBC-batched
+CREATE SEQUENCE business_discovery_searches_seq START WITH 1 INCREMENT BY 50;
+-- Hibernate's pooled optimizer hands out the 50 ids below each sequence value, so the next
+-- value has to be at least 50 past the highest id in use
+SELECT setval('business_discovery_searches_seq', (SELECT COALESCE(max(id), 0) + 1 FROM business_discovery_searches));
+
+CREATE TABLE latest_discovery_results (
+    target_username     varchar(255) NOT NULL,
+    include_media       boolean      NOT NULL,
+    target_instagram_id varchar(255),
+    search_result       text         NOT NULL,
+    fetched_at          timestamp(6) NOT NULL,
+    PRIMARY KEY (include_media, target_username)
+);
+
+CREATE TABLE user_search_stats (
+    user_id             bigint NOT NULL,
+    total_searches      bigint NOT NULL,
+    successful_searches bigint NOT NULL,
+    failed_searches     bigint NOT NULL,
+    last_search_at      timestamp(6),
+    PRIMARY KEY (user_id)
+);
+
+CREATE TABLE watchlist_entries (
+    id                bigserial    NOT NULL,
+    user_id           bigint       NOT NULL,
+    target_username   varchar(255) NOT NULL,
+    include_media     boolean      NOT NULL,
+    created_at        timestamp(6),
+    last_refreshed_at timestamp(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_watchlist_user_target UNIQUE (user_id, target_username),
+    CONSTRAINT fk_watchlist_user FOREIGN KEY (user_id) REFERENCES users
+);
+
+CREATE TABLE account_metrics_samples (
+    id                      bigserial    NOT NULL,
+    target_instagram_id     varchar(255) NOT NULL,
+    followers_count         integer,
+    follows_count           integer,
+    media_count             integer,
+    average_engagement_rate float(53),
+    sampled_at              timestamp(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_account_metrics_target_time ON account_metrics_samples (target_instagram_id, sampled_at);
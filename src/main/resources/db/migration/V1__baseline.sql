@@ -0,0 +1,34 @@
+-- Schema as created by ddl-auto: update before migrations were introduced.
+-- Databases that already have it are baselined at this version and skip this script.
+
+CREATE TABLE users (
+    id                  bigserial    NOT NULL,
+    instagram_id        varchar(255) NOT NULL UNIQUE,
+    username            varchar(255) NOT NULL UNIQUE,
+    full_name           varchar(255),
+    biography           text,
+    profile_picture_url text,
+    followers_count     integer,
+    follows_count       integer,
+    media_count         integer,
+    access_token        text,
+    created_at          timestamp(6),
+    updated_at          timestamp(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE business_discovery_searches (
+    id                  bigserial    NOT NULL,
+    searcher_user_id    bigint       NOT NULL,
+    target_username     varchar(255) NOT NULL,
+    target_instagram_id varchar(255),
+    search_result       text,
+    search_status       varchar(255) CHECK (search_status IN ('SUCCESS', 'FAILED', 'PENDING')),
+    error_message       varchar(255),
+    created_at          timestamp(6),
+    PRIMARY KEY (id)
+);
+
+-- Name generated by Hibernate, kept so fresh and baselined databases match
+ALTER TABLE IF EXISTS business_discovery_searches
+    ADD CONSTRAINT FK47e2jho933s9dfi3vj4obw9xu FOREIGN KEY (searcher_user_id) REFERENCES users;
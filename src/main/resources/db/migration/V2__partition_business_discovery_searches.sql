@@ -0,0 +1,86 @@
+-- business_discovery_searches becomes range partitioned by month of created_at, so old months
+-- can be detached or dropped whole and time-bounded queries only read recent partitions.
+
+ALTER TABLE business_discovery_searches RENAME TO business_discovery_searches_unpartitioned;
+ALTER INDEX IF EXISTS business_discovery_searches_pkey RENAME TO business_discovery_searches_unpartitioned_pkey;
+
+-- The partition key has to be part of the primary key
+CREATE TABLE business_discovery_searches (
+    id                  bigint       NOT NULL,
+    searcher_user_id    bigint       NOT NULL,
+    target_username     varchar(255) NOT NULL,
+    target_instagram_id varchar(255),
+    search_result       text,
+    search_result_data  bytea,
+    search_status       varchar(255) CHECK (search_status IN ('SUCCESS', 'FAILED', 'PENDING')),
+    error_message       varchar(255),
+    created_at          timestamp(6) NOT NULL,
+    PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_searches_searcher_user FOREIGN KEY (searcher_user_id) REFERENCES users
+) PARTITION BY RANGE (created_at);
+
+-- Rows outside every monthly partition; create_search_partitions moves them out again
+CREATE TABLE business_discovery_searches_default PARTITION OF business_discovery_searches DEFAULT;
+
+-- History pages, countSearchesByUserSince, findRecentSearchesByUser and countSearchesByStatus.
+-- The included columns let history pages and counts be answered from the index alone.
+CREATE INDEX idx_searches_user_created ON business_discovery_searches
+    (searcher_user_id, created_at DESC, id DESC)
+    INCLUDE (search_status, target_username, target_instagram_id, error_message);
+
+-- findByTargetUsernameOrderByCreatedAtDesc
+CREATE INDEX idx_searches_target_created ON business_discovery_searches (target_username, created_at DESC);
+
+-- findSearchTimestampsSince, read by the rate limiter on startup and every reconcile
+CREATE INDEX idx_searches_created ON business_discovery_searches (created_at) INCLUDE (searcher_user_id);
+
+-- Creates the monthly partitions from from_month on, for the given number of months, that do
+-- not exist yet, and returns how many it created. Rows of a new month that already landed in
+-- the default partition are moved into it.
+CREATE OR REPLACE FUNCTION create_search_partitions(from_month date, months integer) RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start timestamp;
+    month_end   timestamp;
+    partition   text;
+    created     integer := 0;
+BEGIN
+    FOR i IN 0 .. months - 1 LOOP
+        month_start := date_trunc('month', from_month) + make_interval(months => i);
+        month_end := month_start + interval '1 month';
+        partition := 'business_discovery_searches_' || to_char(month_start, 'YYYY_MM');
+        CONTINUE WHEN to_regclass(partition) IS NOT NULL;
+
+        EXECUTE format('CREATE TABLE %I (LIKE business_discovery_searches INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition);
+        -- Lets ATTACH skip its validation scan
+        EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (created_at >= %L AND created_at < %L)',
+                partition, partition || '_range', month_start, month_end);
+        EXECUTE format('WITH moved AS (DELETE FROM business_discovery_searches_default'
+                || ' WHERE created_at >= %L AND created_at < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+                month_start, month_end, partition);
+        EXECUTE format('ALTER TABLE business_discovery_searches ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                partition, month_start, month_end);
+        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', partition, partition || '_range');
+        created := created + 1;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- Every month with existing searches, up to three months ahead
+SELECT create_search_partitions(first_month::date,
+        (SELECT count(*)::integer
+         FROM generate_series(first_month, date_trunc('month', now()) + interval '3 months', interval '1 month')))
+FROM (SELECT date_trunc('month', COALESCE(min(created_at), now())) AS first_month
+      FROM business_discovery_searches_unpartitioned) bounds;
+
+-- created_at was always set by Hibernate; a row without one would land in the default partition
+INSERT INTO business_discovery_searches (id, searcher_user_id, target_username, target_instagram_id, search_result,
+                                         search_result_data, search_status, error_message, created_at)
+SELECT id, searcher_user_id, target_username, target_instagram_id, search_result,
+       search_result_data, search_status, error_message, COALESCE(created_at, timestamp '1970-01-01')
+FROM business_discovery_searches_unpartitioned;
+
+DROP TABLE business_discovery_searches_unpartitioned;
+
+ANALYZE business_discovery_searches;
@@ -0,0 +1,35 @@
+-- create_search_partitions checks for a partition before creating it, so two instances running it
+-- at once could both try to create the same month, or move rows out of the default partition
+-- twice. A transaction-scoped advisory lock makes concurrent calls take turns; the later one
+-- finds the partitions already there.
+CREATE OR REPLACE FUNCTION create_search_partitions(from_month date, months integer) RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start timestamp;
+    month_end   timestamp;
+    partition   text;
+    created     integer := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('create_search_partitions'));
+
+    FOR i IN 0 .. months - 1 LOOP
+        month_start := date_trunc('month', from_month) + make_interval(months => i);
+        month_end := month_start + interval '1 month';
+        partition := 'business_discovery_searches_' || to_char(month_start, 'YYYY_MM');
+        CONTINUE WHEN to_regclass(partition) IS NOT NULL;
+
+        EXECUTE format('CREATE TABLE %I (LIKE business_discovery_searches INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition);
+        -- Lets ATTACH skip its validation scan
+        EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (created_at >= %L AND created_at < %L)',
+                partition, partition || '_range', month_start, month_end);
+        EXECUTE format('WITH moved AS (DELETE FROM business_discovery_searches_default'
+                || ' WHERE created_at >= %L AND created_at < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+                month_start, month_end, partition);
+        EXECUTE format('ALTER TABLE business_discovery_searches ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                partition, month_start, month_end);
+        EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', partition, partition || '_range');
+        created := created + 1;
+    END LOOP;
+    RETURN created;
+END;
+$$;
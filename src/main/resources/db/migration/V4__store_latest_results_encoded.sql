@@ -0,0 +1,4 @@
+-- Latest results are stored encoded by SearchResultCodecs, like search rows, so reading the
+-- shared cache does not parse JSON text. Rows written before keep their JSON until replaced.
+ALTER TABLE latest_discovery_results ADD COLUMN search_result_data bytea;
+ALTER TABLE latest_discovery_results ALTER COLUMN search_result DROP NOT NULL;
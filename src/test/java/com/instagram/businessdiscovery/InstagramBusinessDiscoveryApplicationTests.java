@@ -2,18 +2,14 @@ package com.instagram.businessdiscovery;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
-@TestPropertySource(properties = {
-    "spring.datasource.url=jdbc:h2:mem:testdb",
-    "spring.datasource.driver-class-name=org.h2.Driver",
-    "spring.jpa.hibernate.ddl-auto=create-drop"
-})
+@ActiveProfiles("test")
 class InstagramBusinessDiscoveryApplicationTests {
 
     @Test
     void contextLoads() {
         // Test that Spring context loads successfully
     }
-}
\ No newline at end of file
+}
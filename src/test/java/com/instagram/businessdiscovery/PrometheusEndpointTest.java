@@ -0,0 +1,34 @@
+package com.instagram.businessdiscovery;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void scrapeExposesCacheSearchAndRepositoryMeters() {
+        // Touch a repository so its invocation timer exists
+        restTemplate.getForObject("/dashboard?userId=1", String.class);
+
+        String scrape = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        assertThat(scrape)
+                .contains("cache_gets_total{application=\"instagram-login-app\",cache=\"businessDiscovery\"")
+                .contains("instagram_discovery_cache_lookups_total")
+                .contains("instagram_search_in_flight")
+                .contains("instagram_graph_singleflight_in_flight")
+                .contains("spring_data_repository_invocations_seconds_bucket");
+    }
+}
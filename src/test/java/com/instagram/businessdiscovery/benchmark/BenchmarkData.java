@@ -0,0 +1,100 @@
+package com.instagram.businessdiscovery.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Realistic business discovery payloads shared by the benchmarks
+ */
+public final class BenchmarkData {
+
+    private static final String[] MEDIA_TYPES = {"IMAGE", "VIDEO", "CAROUSEL_ALBUM"};
+    private static final DateTimeFormatter GRAPH_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+
+    private BenchmarkData() {
+    }
+
+    public static BusinessDiscoveryDto businessDiscovery(int posts) {
+        Random random = new Random(42);
+        int followers = 1_250_000;
+
+        List<BusinessDiscoveryDto.MediaInsightDto> media = new ArrayList<>(posts);
+        OffsetDateTime timestamp = OffsetDateTime.of(2026, 10, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < posts; i++) {
+            int likes = 2_000 + random.nextInt(50_000);
+            int comments = random.nextInt(2_000);
+            media.add(BusinessDiscoveryDto.MediaInsightDto.builder()
+                    .id(String.valueOf(17_900_000_000_000_000L + i))
+                    .mediaUrl("https://scontent.cdninstagram.com/v/t51.29350-15/" + (400_000_000 + i) + "_n.jpg?_nc_cat=1&ccb=1-7&_nc_sid=8ae9d6")
+                    .mediaType(MEDIA_TYPES[i % MEDIA_TYPES.length])
+                    .caption("New drop #" + i + " is live! Tap the link in bio to shop the collection. #style #newin #summer")
+                    .likeCount(likes)
+                    .commentsCount(comments)
+                    .timestamp(timestamp.minusHours(i * 9L).format(GRAPH_TIMESTAMP))
+                    .permalink("https://www.instagram.com/p/C" + Integer.toString(1_000_000 + i, 36) + "/")
+                    .engagementRate((double) (likes + comments) / followers * 100)
+                    .build());
+        }
+
+        return BusinessDiscoveryDto.builder()
+                .id("17841400008460056")
+                .username("benchmark_brand")
+                .name("Benchmark Brand")
+                .biography("Official account of Benchmark Brand. Designed in Tashkent, shipped worldwide.")
+                .followersCount(followers)
+                .followsCount(312)
+                .mediaCount(4_810)
+                .profilePictureUrl("https://scontent.cdninstagram.com/v/t51.2885-19/profile_pic.jpg")
+                .website("https://benchmark-brand.example.com")
+                .recentMedia(posts > 0 ? media : null)
+                .build();
+    }
+
+    /**
+     * Graph API business discovery response body for the same account, as returned with media fields
+     */
+    public static byte[] graphResponse(int posts) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        BusinessDiscoveryDto account = businessDiscovery(posts);
+
+        ObjectNode discovery = objectMapper.createObjectNode()
+                .put("id", account.getId())
+                .put("username", account.getUsername())
+                .put("name", account.getName())
+                .put("biography", account.getBiography())
+                .put("followers_count", account.getFollowersCount())
+                .put("follows_count", account.getFollowsCount())
+                .put("media_count", account.getMediaCount())
+                .put("profile_picture_url", account.getProfilePictureUrl())
+                .put("website", account.getWebsite());
+        if (account.getRecentMedia() != null) {
+            ArrayNode data = discovery.putObject("media").putArray("data");
+            for (BusinessDiscoveryDto.MediaInsightDto post : account.getRecentMedia()) {
+                data.addObject()
+                        .put("id", post.getId())
+                        .put("media_url", post.getMediaUrl())
+                        .put("media_type", post.getMediaType())
+                        .put("caption", post.getCaption())
+                        .put("like_count", post.getLikeCount())
+                        .put("comments_count", post.getCommentsCount())
+                        .put("timestamp", post.getTimestamp())
+                        .put("permalink", post.getPermalink());
+            }
+        }
+
+        ObjectNode response = objectMapper.createObjectNode();
+        response.set("business_discovery", discovery);
+        response.put("id", "17841400000000001");
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,140 @@
+package com.instagram.businessdiscovery.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.service.BusinessDiscoveryResponseParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a Graph API business discovery response with media, including per-post engagement
+ * and account insights. The streaming parser is measured against the JsonNode tree walk it
+ * replaced; insights on their own are in {@link EngagementAnalyticsBenchmark}. Run with -prof gc
+ * to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BusinessDiscoveryParseBenchmark {
+
+    @Param({"25", "100", "1000"})
+    private int posts;
+
+    private ObjectMapper objectMapper;
+    private BusinessDiscoveryResponseParser parser;
+    private byte[] response;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        parser = new BusinessDiscoveryResponseParser(objectMapper);
+        response = BenchmarkData.graphResponse(posts);
+        System.out.printf("%n[response-bytes] posts=%d bytes=%d%n", posts, response.length);
+    }
+
+    @Benchmark
+    public BusinessDiscoveryDto streamingParse() throws IOException {
+        return parser.parse(response);
+    }
+
+    @Benchmark
+    public BusinessDiscoveryDto treeParse() throws IOException {
+        return parseTree(objectMapper.readTree(response));
+    }
+
+    // Tree-based decoding as done by InstagramApiService before the streaming parser
+
+    private BusinessDiscoveryDto parseTree(JsonNode response) {
+        JsonNode businessDiscovery = response.get("business_discovery");
+        BusinessDiscoveryDto dto = BusinessDiscoveryDto.builder()
+                .id(getTextValue(businessDiscovery, "id"))
+                .username(getTextValue(businessDiscovery, "username"))
+                .name(getTextValue(businessDiscovery, "name"))
+                .biography(getTextValue(businessDiscovery, "biography"))
+                .followersCount(getIntValue(businessDiscovery, "followers_count"))
+                .followsCount(getIntValue(businessDiscovery, "follows_count"))
+                .mediaCount(getIntValue(businessDiscovery, "media_count"))
+                .profilePictureUrl(getTextValue(businessDiscovery, "profile_picture_url"))
+                .website(getTextValue(businessDiscovery, "website"))
+                .build();
+
+        JsonNode media = businessDiscovery.get("media");
+        if (media != null && media.has("data")) {
+            List<BusinessDiscoveryDto.MediaInsightDto> mediaList = new ArrayList<>();
+            for (JsonNode mediaItem : media.get("data")) {
+                BusinessDiscoveryDto.MediaInsightDto mediaDto = BusinessDiscoveryDto.MediaInsightDto.builder()
+                        .id(getTextValue(mediaItem, "id"))
+                        .mediaUrl(getTextValue(mediaItem, "media_url"))
+                        .mediaType(getTextValue(mediaItem, "media_type"))
+                        .caption(getTextValue(mediaItem, "caption"))
+                        .likeCount(getIntValue(mediaItem, "like_count"))
+                        .commentsCount(getIntValue(mediaItem, "comments_count"))
+                        .timestamp(getTextValue(mediaItem, "timestamp"))
+                        .permalink(getTextValue(mediaItem, "permalink"))
+                        .build();
+                if (dto.getFollowersCount() != null && dto.getFollowersCount() > 0) {
+                    int totalEngagement = (mediaDto.getLikeCount() != null ? mediaDto.getLikeCount() : 0) +
+                            (mediaDto.getCommentsCount() != null ? mediaDto.getCommentsCount() : 0);
+                    mediaDto.setEngagementRate((double) totalEngagement / dto.getFollowersCount() * 100);
+                }
+                mediaList.add(mediaDto);
+            }
+            dto.setRecentMedia(mediaList);
+            dto.setInsights(calculateInsights(mediaList, dto.getFollowersCount()));
+        }
+        return dto;
+    }
+
+    static BusinessDiscoveryDto.AccountInsightsDto calculateInsights(
+            List<BusinessDiscoveryDto.MediaInsightDto> mediaList, Integer followersCount) {
+        if (mediaList.isEmpty() || followersCount == null || followersCount == 0) {
+            return null;
+        }
+        long totalLikes = mediaList.stream()
+                .mapToLong(media -> media.getLikeCount() != null ? media.getLikeCount() : 0)
+                .sum();
+        long totalComments = mediaList.stream()
+                .mapToLong(media -> media.getCommentsCount() != null ? media.getCommentsCount() : 0)
+                .sum();
+        double averageEngagementRate = mediaList.stream()
+                .filter(media -> media.getEngagementRate() != null)
+                .mapToDouble(BusinessDiscoveryDto.MediaInsightDto::getEngagementRate)
+                .average()
+                .orElse(0.0);
+        return BusinessDiscoveryDto.AccountInsightsDto.builder()
+                .averageEngagementRate(averageEngagementRate)
+                .totalLikes(totalLikes)
+                .totalComments(totalComments)
+                .postsLast30Days(mediaList.size())
+                .build();
+    }
+
+    private static String getTextValue(JsonNode node, String fieldName) {
+        JsonNode field = node.get(fieldName);
+        return field != null && !field.isNull() ? field.asText() : null;
+    }
+
+    private static Integer getIntValue(JsonNode node, String fieldName) {
+        JsonNode field = node.get(fieldName);
+        return field != null && !field.isNull() ? field.asInt() : null;
+    }
+}
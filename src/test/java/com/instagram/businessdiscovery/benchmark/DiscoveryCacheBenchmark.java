@@ -0,0 +1,87 @@
+package com.instagram.businessdiscovery.benchmark;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.instagram.businessdiscovery.config.CacheConfig;
+import com.instagram.businessdiscovery.service.CachedDiscovery;
+import com.instagram.businessdiscovery.service.DiscoveryKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contended reads and writes on the business discovery cache, configured as in CacheConfig.
+ * Lookups are skewed towards a small set of popular usernames, as real search traffic is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiscoveryCacheBenchmark {
+
+    private static final int MAXIMUM_SIZE = 10_000;
+
+    @Param({"1000", "100000"})
+    private int distinctUsernames;
+
+    private AsyncCache<DiscoveryKey, CachedDiscovery> cache;
+    private DiscoveryKey[] keys;
+    private CompletableFuture<CachedDiscovery> value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = new CacheConfig().businessDiscoveryAsyncCache(MAXIMUM_SIZE, Duration.ofHours(24));
+        value = CompletableFuture.completedFuture(CachedDiscovery.now(BenchmarkData.businessDiscovery(25)));
+        keys = new DiscoveryKey[distinctUsernames];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = DiscoveryKey.of("account_" + i, i % 4 == 0);
+        }
+        for (int i = 0; i < Math.min(keys.length, MAXIMUM_SIZE); i++) {
+            cache.put(keys[i], value);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CompletableFuture<CachedDiscovery> get() {
+        return cache.getIfPresent(nextKey());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public CompletableFuture<CachedDiscovery> readWriteGet() {
+        return cache.getIfPresent(nextKey());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void readWritePut() {
+        cache.put(nextKey(), value);
+    }
+
+    private DiscoveryKey nextKey() {
+        // Squaring a uniform draw favours low indexes: ~30% of lookups hit the top 10% of keys
+        double draw = ThreadLocalRandom.current().nextDouble();
+        return keys[(int) (draw * draw * keys.length)];
+    }
+}
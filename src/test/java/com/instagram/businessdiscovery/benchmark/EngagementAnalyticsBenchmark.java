@@ -0,0 +1,103 @@
+package com.instagram.businessdiscovery.benchmark;
+
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.service.EngagementAnalytics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Account insights over an already decoded media list. The single-pass engine is measured
+ * against the three-stream calculation it replaced, and against the same extra statistics
+ * (median, p90, cadence, per media type, top posts) computed the straightforward way with
+ * sorting and collectors. Run with -prof gc to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngagementAnalyticsBenchmark {
+
+    private static final DateTimeFormatter GRAPH_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+
+    @Param({"25", "100", "1000"})
+    private int posts;
+
+    private List<BusinessDiscoveryDto.MediaInsightDto> media;
+    private int followersCount;
+    private Instant recentCutoff;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BusinessDiscoveryDto account = BenchmarkData.businessDiscovery(posts);
+        media = account.getRecentMedia();
+        followersCount = account.getFollowersCount();
+        recentCutoff = Instant.parse("2026-09-01T00:00:00Z");
+    }
+
+    @Benchmark
+    public BusinessDiscoveryDto.AccountInsightsDto singlePass() {
+        return EngagementAnalytics.of(media, followersCount, recentCutoff);
+    }
+
+    @Benchmark
+    public BusinessDiscoveryDto.AccountInsightsDto threeStreams() {
+        return BusinessDiscoveryParseBenchmark.calculateInsights(media, followersCount);
+    }
+
+    @Benchmark
+    public BusinessDiscoveryDto.AccountInsightsDto sortedStreams() {
+        BusinessDiscoveryDto.AccountInsightsDto insights = BusinessDiscoveryParseBenchmark.calculateInsights(media, followersCount);
+        double[] rates = media.stream()
+                .filter(post -> post.getEngagementRate() != null)
+                .mapToDouble(BusinessDiscoveryDto.MediaInsightDto::getEngagementRate)
+                .sorted()
+                .toArray();
+        List<Long> published = media.stream()
+                .filter(post -> post.getTimestamp() != null)
+                .map(post -> OffsetDateTime.parse(post.getTimestamp(), GRAPH_TIMESTAMP).toEpochSecond())
+                .sorted()
+                .toList();
+        Map<String, BusinessDiscoveryDto.MediaTypeEngagementDto> byType = media.stream()
+                .collect(Collectors.groupingBy(post -> post.getMediaType() != null ? post.getMediaType() : "OTHER",
+                        Collectors.collectingAndThen(Collectors.toList(), group -> BusinessDiscoveryDto.MediaTypeEngagementDto.builder()
+                                .posts(group.size())
+                                .averageEngagement(group.stream().mapToInt(EngagementAnalyticsBenchmark::engagement).average().orElse(0))
+                                .averageEngagementRate(group.stream().mapToDouble(BusinessDiscoveryDto.MediaInsightDto::getEngagementRate).average().orElse(0))
+                                .build())));
+        insights.setMedianEngagementRate(rates[(rates.length - 1) / 2]);
+        insights.setP90EngagementRate(rates[(int) Math.ceil(0.9 * rates.length) - 1]);
+        insights.setPostsPerDay((published.size() - 1) * 86_400.0 / (published.get(published.size() - 1) - published.get(0)));
+        insights.setEngagementByMediaType(byType);
+        insights.setTopPosts(media.stream()
+                .sorted(Comparator.comparingInt(EngagementAnalyticsBenchmark::engagement).reversed())
+                .limit(5)
+                .toList());
+        return insights;
+    }
+
+    private static int engagement(BusinessDiscoveryDto.MediaInsightDto post) {
+        return (post.getLikeCount() != null ? post.getLikeCount() : 0)
+                + (post.getCommentsCount() != null ? post.getCommentsCount() : 0);
+    }
+}
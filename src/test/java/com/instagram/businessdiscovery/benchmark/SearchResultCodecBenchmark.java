@@ -0,0 +1,82 @@
+package com.instagram.businessdiscovery.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.service.JsonSearchResultCodec;
+import com.instagram.businessdiscovery.service.SearchResultCodecs;
+import com.instagram.businessdiscovery.service.SmileSearchResultCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of persisted search results: the legacy JSON text column against the
+ * binary codecs. Bytes per row for each format are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchResultCodecBenchmark {
+
+    @Param({"0", "25", "100", "1000"})
+    private int posts;
+
+    @Param({"json-text", "json", "smile-deflate"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private SearchResultCodecs codecs;
+    private BusinessDiscoveryDto result;
+    private String encodedText;
+    private byte[] encodedData;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        codecs = new SearchResultCodecs(
+                List.of(new JsonSearchResultCodec(objectMapper), new SmileSearchResultCodec(objectMapper)),
+                objectMapper,
+                format.equals("json-text") ? "json" : format);
+        result = BenchmarkData.businessDiscovery(posts);
+
+        encodedText = objectMapper.writeValueAsString(result);
+        encodedData = codecs.encode(result);
+        int bytesPerRow = format.equals("json-text")
+                ? encodedText.getBytes(StandardCharsets.UTF_8).length
+                : encodedData.length;
+        System.out.printf("%n[bytes-per-row] format=%s posts=%d bytes=%d%n", format, posts, bytesPerRow);
+    }
+
+    @Benchmark
+    public Object encode() throws IOException {
+        if (format.equals("json-text")) {
+            return objectMapper.writeValueAsString(result);
+        }
+        return codecs.encode(result);
+    }
+
+    @Benchmark
+    public BusinessDiscoveryDto decode() throws IOException {
+        if (format.equals("json-text")) {
+            return codecs.decode(null, encodedText);
+        }
+        return codecs.decode(encodedData, null);
+    }
+}
@@ -0,0 +1,87 @@
+package com.instagram.businessdiscovery.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.instagram.businessdiscovery.service.GraphApiThrottle;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GraphApiClientConfigTest {
+
+    private final GraphApiClientConfig config = new GraphApiClientConfig();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicReference<String> acceptEncoding = new AtomicReference<>();
+
+    private DisposableServer server;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        Metrics.addRegistry(registry);
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .compress(true)
+                .route(routes -> routes
+                        .get("/me", (request, response) -> {
+                            acceptEncoding.set(request.requestHeaders().get(HttpHeaderNames.ACCEPT_ENCODING));
+                            return response.sendString(Mono.just("{\"id\":\"1\"}"));
+                        })
+                        .get("/slow", (request, response) -> response.sendString(
+                                Mono.delay(Duration.ofSeconds(2)).map(tick -> "{}"))))
+                .bindNow();
+        connectionProvider = config.graphApiConnectionProvider(4, 10, Duration.ofSeconds(1),
+                Duration.ofSeconds(50), Duration.ofMinutes(10), Duration.ofSeconds(30));
+        webClient = config.graphApiWebClient(WebClient.builder(), connectionProvider,
+                new GraphApiThrottle(new ObjectMapper(), registry),
+                Duration.ofSeconds(1), Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+        server.disposeNow();
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    void requestsCompressedResponsesAndPublishesPoolMetrics() {
+        String body = webClient.get().uri("http://localhost:" + server.port() + "/me")
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+
+        assertThat(body).isEqualTo("{\"id\":\"1\"}");
+        assertThat(acceptEncoding.get()).contains("gzip");
+        assertThat(registry.find("reactor.netty.connection.provider.max.connections")
+                .tag("name", "graph-api")
+                .gauge())
+                .isNotNull()
+                .satisfies(gauge -> assertThat(gauge.value()).isEqualTo(4));
+    }
+
+    @Test
+    void failsSlowResponsesWithTheNettyResponseTimeout() {
+        assertThatThrownBy(() -> webClient.get().uri("http://localhost:" + server.port() + "/slow")
+                .retrieve()
+                .bodyToMono(String.class)
+                .block())
+                .hasRootCauseInstanceOf(ReadTimeoutException.class);
+    }
+}
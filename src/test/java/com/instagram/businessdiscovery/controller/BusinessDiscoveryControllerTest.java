@@ -0,0 +1,61 @@
+package com.instagram.businessdiscovery.controller;
+
+import com.instagram.businessdiscovery.dto.BatchSearchRequest;
+import com.instagram.businessdiscovery.dto.BatchSearchResultDto;
+import com.instagram.businessdiscovery.service.AccountMetricsService;
+import com.instagram.businessdiscovery.service.BusinessDiscoveryService;
+import com.instagram.businessdiscovery.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+class BusinessDiscoveryControllerTest {
+
+    private final BusinessDiscoveryService businessDiscoveryService = mock(BusinessDiscoveryService.class);
+    private final UserService userService = mock(UserService.class);
+    private final BusinessDiscoveryController controller = new BusinessDiscoveryController(businessDiscoveryService,
+            userService, mock(AccountMetricsService.class), new AsyncResponses(false));
+
+    @Test
+    void batchOverTheMaximumSizeIsRejectedBeforeAnyLookup() {
+        setField(controller, "maxBatchSize", 2);
+
+        ResponseEntity<Flux<BatchSearchResultDto>> response = controller.batchSearchBusinessAccounts(1L,
+                BatchSearchRequest.builder().targetUsernames(List.of("a", "b", "c")).build());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        StepVerifier.create(response.getBody())
+                .assertNext(item -> {
+                    assertThat(item.getStatus()).isEqualTo(BatchSearchResultDto.Status.FAILED);
+                    assertThat(item.getError()).isEqualTo("Maximum 2 target usernames per batch");
+                })
+                .verifyComplete();
+        verifyNoInteractions(userService);
+        verify(businessDiscoveryService, never()).searchBusinessAccounts(any(), anyList(), anyBoolean());
+    }
+
+    @Test
+    void emptyBatchIsRejected() {
+        setField(controller, "maxBatchSize", 2);
+
+        ResponseEntity<Flux<BatchSearchResultDto>> response = controller.batchSearchBusinessAccounts(1L,
+                BatchSearchRequest.builder().targetUsernames(List.of()).build());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(userService, businessDiscoveryService);
+    }
+}
@@ -0,0 +1,196 @@
+package com.instagram.businessdiscovery.load;
+
+import com.instagram.businessdiscovery.domain.User;
+import com.instagram.businessdiscovery.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load suite: drives search, dashboard and the OAuth callback at a fixed concurrency
+ * against an app whose Graph API calls all go to {@link GraphApiSimulator}.
+ * Run with: mvn -Pload-test test
+ * <p>
+ * Sizes can be overridden, e.g. for 1k concurrent requests:
+ * mvn -Pload-test test -Dload.requests=5000 -Dload.concurrency=1000 -Dload.request-threads=200
+ * <p>
+ * Simulator behaviour is set with {@code simulator.*} properties (see {@link GraphApiSimulator.Settings}),
+ * and {@code -Dload.datasource-url=jdbc:postgresql://localhost:5432/...} (plus username and password)
+ * swaps the in-memory database for the docker-compose Postgres.
+ */
+@Tag("load")
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "logging.level.com.instagram.businessdiscovery=INFO",
+        "logging.level.org.springframework.web.reactive=INFO",
+        // Hedged requests would blur the per-mode checks on Graph API call counts and concurrency
+        "instagram.api.resilience.hedge.enabled=false"})
+abstract class AbstractLoadTest {
+
+    static final int REQUEST_THREADS = Integer.getInteger("load.request-threads", 4);
+    static final int REQUESTS = Integer.getInteger("load.requests", 100);
+    static final int CONCURRENCY = Integer.getInteger("load.concurrency", 50);
+
+    private static final String DATASOURCE_URL = System.getProperty("load.datasource-url");
+    private static final AtomicInteger RUN = new AtomicInteger();
+    private static GraphApiSimulator graphApi;
+
+    private final LoadDriver driver = new LoadDriver();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void loadProperties(DynamicPropertyRegistry registry) {
+        registry.add("instagram.api.base-url", () -> graphApi().baseUrl());
+        registry.add("facebook.api.token-uri", () -> graphApi().baseUrl() + "/oauth/access_token");
+        registry.add("facebook.api.me-accounts-uri", () -> graphApi().baseUrl() + "/me/accounts");
+        registry.add("server.tomcat.threads.max", () -> REQUEST_THREADS);
+        registry.add("instagram.api.business-discovery.rate-limit", () -> 1_000_000);
+        if (DATASOURCE_URL != null) {
+            registry.add("spring.datasource.url", () -> DATASOURCE_URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("load.datasource-username"));
+            registry.add("spring.datasource.password", () -> System.getProperty("load.datasource-password"));
+            registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+            registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+            registry.add("spring.flyway.enabled", () -> true);
+            registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+            registry.add("instagram.api.business-discovery.partitions.enabled", () -> true);
+        }
+    }
+
+    private static synchronized GraphApiSimulator graphApi() {
+        if (graphApi == null) {
+            graphApi = new GraphApiSimulator(GraphApiSimulator.Settings.fromSystemProperties());
+        }
+        return graphApi;
+    }
+
+    @AfterAll
+    static synchronized void stopSimulator() {
+        if (graphApi != null) {
+            graphApi.stop();
+            graphApi = null;
+        }
+    }
+
+    abstract String mode();
+
+    /**
+     * Mode-specific check on the Graph API traffic of a measured run, e.g. how many calls were outstanding at once.
+     */
+    abstract void assertGraphUsage(String scenario, GraphApiSimulator graphApi);
+
+    /**
+     * Mode-specific check on how long a measured run took; the report line is printed either way.
+     */
+    void assertElapsed(String scenario, LoadDriver.Report report) {
+    }
+
+    /**
+     * Least time the measured searches take when each one holds a request thread for a median Graph
+     * API latency, or null when the run is too small to tell the modes apart
+     */
+    static Duration threadBoundMinimum() {
+        if (Math.min(REQUESTS, CONCURRENCY) <= 2 * REQUEST_THREADS) {
+            return null;
+        }
+        long rounds = (REQUESTS + REQUEST_THREADS - 1) / REQUEST_THREADS;
+        return graphApi().settings().latencyMedian().multipliedBy(rounds);
+    }
+
+    @Test
+    void search() {
+        User user = saveUser();
+        String prefix = "s" + RUN.get() + "_";
+        warmUp("search", 200, index -> searchRequest(user, "warm" + prefix + index));
+
+        LoadDriver.Report report = measure("search", 200, index -> searchRequest(user, prefix + index));
+        assertGraphUsage("search", graphApi());
+        assertElapsed("search", report);
+        assertNoErrors(report);
+    }
+
+    @Test
+    void dashboard() {
+        User user = saveUser();
+        // Give the dashboard a search history to render
+        warmUp("dashboard", 200, index -> searchRequest(user, "d" + RUN.get() + "_" + index));
+
+        LoadDriver.Report report = measure("dashboard", 200, index -> HttpRequest.newBuilder(
+                url("/dashboard?userId=" + user.getId())).GET().build());
+        assertNoErrors(report);
+    }
+
+    @Test
+    void callback() {
+        String prefix = mode() + RUN.incrementAndGet() + "_";
+        warmUp("callback", 302, index -> callbackRequest("warm" + prefix + index));
+
+        LoadDriver.Report report = measure("callback", 302, index -> callbackRequest(prefix + index));
+        assertGraphUsage("callback", graphApi());
+        assertNoErrors(report);
+    }
+
+    private void warmUp(String scenario, int expectedStatus, IntFunction<HttpRequest> requests) {
+        // Warm up the connection pools and JIT before measuring
+        driver.run(scenario, Math.min(REQUESTS, 20), REQUEST_THREADS, expectedStatus, requests);
+    }
+
+    private LoadDriver.Report measure(String scenario, int expectedStatus,
+                                      IntFunction<HttpRequest> requests) {
+        graphApi().resetStats();
+        LoadDriver.Report report = driver.run(scenario, REQUESTS, CONCURRENCY, expectedStatus, requests);
+        System.out.printf("%s requestThreads=%d graphCalls=%d graphPeak=%d%n", report.summary(mode()),
+                REQUEST_THREADS, graphApi().requests(), graphApi().peakConcurrency());
+        return report;
+    }
+
+    private void assertNoErrors(LoadDriver.Report report) {
+        // Injected Graph failures surface as failed requests; only a clean simulator must give a clean run
+        if (graphApi().failures() == 0) {
+            assertThat(report.errors()).as(report.firstError()).isZero();
+        }
+    }
+
+    private User saveUser() {
+        int run = RUN.incrementAndGet();
+        return userRepository.save(User.builder()
+                .instagramId("1784140000" + run + mode().hashCode())
+                .username("load_" + mode() + "_" + run)
+                .accessToken("token")
+                .build());
+    }
+
+    private HttpRequest searchRequest(User user, String target) {
+        return HttpRequest.newBuilder(url("/business-discovery/search?userId=" + user.getId()
+                        + "&targetUsername=" + target))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private HttpRequest callbackRequest(String code) {
+        return HttpRequest.newBuilder(url("/facebook/callback?code=" + code)).GET().build();
+    }
+
+    private URI url(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
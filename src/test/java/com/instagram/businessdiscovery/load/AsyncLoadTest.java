@@ -0,0 +1,32 @@
+package com.instagram.businessdiscovery.load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "instagram.web.async-mode=true")
+class AsyncLoadTest extends AbstractLoadTest {
+
+    @Override
+    String mode() {
+        return "async";
+    }
+
+    @Override
+    void assertGraphUsage(String scenario, GraphApiSimulator graphApi) {
+        // Pending Graph API calls no longer hold request threads
+        assertThat(graphApi.peakConcurrency()).isGreaterThan(REQUEST_THREADS);
+    }
+
+    @Override
+    void assertElapsed(String scenario, LoadDriver.Report report) {
+        // Request threads are released while Graph API calls are pending, so searches finish faster than any thread-bound mode can
+        Duration threadBound = threadBoundMinimum();
+        if (scenario.equals("search") && threadBound != null) {
+            assertThat(report.elapsed()).isLessThan(threadBound);
+        }
+    }
+}
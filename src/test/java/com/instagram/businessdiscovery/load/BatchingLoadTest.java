@@ -0,0 +1,25 @@
+package com.instagram.businessdiscovery.load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"instagram.web.async-mode=true", "instagram.api.graph-batch.enabled=true"})
+class BatchingLoadTest extends AbstractLoadTest {
+
+    @Override
+    String mode() {
+        return "batching";
+    }
+
+    @Override
+    void assertGraphUsage(String scenario, GraphApiSimulator graphApi) {
+        if (scenario.equals("search")) {
+            // Concurrent lookups made with one access token are merged into batch calls
+            assertThat(graphApi.requests()).isLessThan(REQUESTS);
+        } else {
+            assertThat(graphApi.peakConcurrency()).isGreaterThan(REQUEST_THREADS);
+        }
+    }
+}
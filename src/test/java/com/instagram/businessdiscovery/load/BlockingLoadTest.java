@@ -0,0 +1,21 @@
+package com.instagram.businessdiscovery.load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "instagram.web.async-mode=false")
+class BlockingLoadTest extends AbstractLoadTest {
+
+    @Override
+    String mode() {
+        return "blocking";
+    }
+
+    @Override
+    void assertGraphUsage(String scenario, GraphApiSimulator graphApi) {
+        // Request threads are held for every Graph API call, so calls queue behind them
+        assertThat(graphApi.peakConcurrency()).isLessThanOrEqualTo(REQUEST_THREADS);
+    }
+}
@@ -0,0 +1,266 @@
+package com.instagram.businessdiscovery.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local Graph API stand-in answering the OAuth token exchange, /me/accounts, page lookup,
+ * profile, business discovery and batch calls with Graph-shaped bodies.
+ * <p>
+ * Latency follows a log-normal distribution fitted to the configured median and p99, and a
+ * share of calls can be failed with Graph's transient error or rate-limit responses.
+ * Run standalone against a locally started app with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.instagram.businessdiscovery.load.GraphApiSimulator -Dsimulator.port=8089
+ */
+class GraphApiSimulator {
+
+    private static final Pattern TARGET_USERNAME = Pattern.compile("business_discovery\\.username\\(([^)]+)\\)");
+    private static final Pattern MEDIA_LIMIT = Pattern.compile("media(?:\\.after\\([^)]*\\))?\\.limit\\((\\d+)\\)");
+    private static final Pattern MEDIA_AFTER = Pattern.compile("media\\.after\\(c(\\d+)\\)");
+    private static final int MEDIA_COUNT = 150;
+    private static final double Z_99 = 2.326;
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final Settings settings;
+    private final double latencySigma;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final DisposableServer server;
+
+    GraphApiSimulator(Settings settings) {
+        this.settings = settings;
+        this.latencySigma = Math.log((double) settings.latencyP99().toNanos() / settings.latencyMedian().toNanos()) / Z_99;
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(settings.port())
+                .route(routes -> routes
+                        .get("/oauth/access_token", (request, response) -> respond(response,
+                                Mono.fromSupplier(() -> accessToken(query(request)))))
+                        .get("/me/accounts", (request, response) -> respond(response,
+                                Mono.fromSupplier(() -> accounts(query(request)))))
+                        .post("/", (request, response) -> respond(response,
+                                request.receive().aggregate().asString().map(GraphApiSimulator::batch)))
+                        .get("/{nodeId}", (request, response) -> respond(response,
+                                Mono.fromSupplier(() -> node(request.param("nodeId"), query(request))))))
+                .bindNow();
+    }
+
+    public static void main(String[] args) {
+        GraphApiSimulator simulator = new GraphApiSimulator(Settings.fromSystemProperties());
+        System.out.printf("[simulator] Graph API stand-in listening on %s%n", simulator.baseUrl());
+        simulator.server.onDispose().block();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    Settings settings() {
+        return settings;
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long failures() {
+        return failures.get();
+    }
+
+    /**
+     * Highest number of Graph calls that were waiting out their latency at the same time.
+     */
+    int peakConcurrency() {
+        return peakActive.get();
+    }
+
+    void resetStats() {
+        requests.set(0);
+        failures.set(0);
+        peakActive.set(active.get());
+    }
+
+    void stop() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> respond(HttpServerResponse response, Mono<String> body) {
+        requests.incrementAndGet();
+        peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+
+        double roll = ThreadLocalRandom.current().nextDouble();
+        Mono<String> payload;
+        if (roll < settings.throttleRate()) {
+            failures.incrementAndGet();
+            response.status(HttpResponseStatus.BAD_REQUEST)
+                    .header("X-App-Usage", "{\"call_count\":100,\"total_cputime\":35,\"total_time\":40}");
+            payload = Mono.just(error("(#4) Application request limit reached", 4, false));
+        } else if (roll < settings.throttleRate() + settings.errorRate()) {
+            failures.incrementAndGet();
+            response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR);
+            payload = Mono.just(error("An unexpected error has occurred. Please retry your request later.", 2, true));
+        } else {
+            payload = body;
+        }
+
+        return response
+                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .sendString(Mono.delay(sampleLatency())
+                        // Count the call as finished before its response is written, so a caller's next call never overlaps it
+                        .doOnNext(tick -> active.decrementAndGet())
+                        .doOnCancel(active::decrementAndGet)
+                        .then(payload))
+                .then();
+    }
+
+    private Duration sampleLatency() {
+        double gaussian = ThreadLocalRandom.current().nextGaussian();
+        return Duration.ofNanos((long) (settings.latencyMedian().toNanos() * Math.exp(latencySigma * gaussian)));
+    }
+
+    private static QueryStringDecoder query(HttpServerRequest request) {
+        return new QueryStringDecoder(request.uri());
+    }
+
+    /**
+     * Answers a Graph API batch call; every sub-request is served by the GET routes' node handler
+     */
+    private static String batch(String form) {
+        String requests = new QueryStringDecoder(form, false).parameters().get("batch").get(0);
+        try {
+            ArrayNode responses = JSON.createArrayNode();
+            for (JsonNode item : JSON.readTree(requests)) {
+                QueryStringDecoder relative = new QueryStringDecoder("/" + item.get("relative_url").asText());
+                String nodeId = relative.path().substring(1);
+                responses.addObject()
+                        .put("code", 200)
+                        .put("body", node(nodeId, relative));
+            }
+            return responses.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String accessToken(QueryStringDecoder query) {
+        return """
+                {"access_token":"sim-%s","token_type":"bearer","expires_in":5183944}"""
+                .formatted(param(query, "code", "code"));
+    }
+
+    private static String accounts(QueryStringDecoder query) {
+        String token = param(query, "access_token", "anonymous");
+        return """
+                {"data":[{"id":"page-%s","name":"Simulated Page","category":"Brand"}],\
+                "paging":{"cursors":{"before":"QVFIUk","after":"QVFIUk"}}}"""
+                .formatted(token);
+    }
+
+    private static String node(String nodeId, QueryStringDecoder query) {
+        String fields = param(query, "fields", "");
+        if (fields.contains("business_discovery")) {
+            return businessDiscovery(nodeId, fields);
+        }
+        if (fields.contains("instagram_business_account")) {
+            return """
+                    {"instagram_business_account":{"id":"ig-%s"},"id":"%s"}"""
+                    .formatted(nodeId.replaceFirst("^page-", ""), nodeId);
+        }
+        return """
+                {"id":"%s","username":"%s","name":"Simulated %s","biography":"Load test account",\
+                "followers_count":5400,"follows_count":210,"media_count":87,\
+                "profile_picture_url":"https://example.com/%s.jpg"}"""
+                .formatted(nodeId, nodeId, nodeId, nodeId);
+    }
+
+    private static String businessDiscovery(String accountId, String fields) {
+        String username = match(TARGET_USERNAME, fields, "unknown");
+        StringBuilder json = new StringBuilder()
+                .append("{\"business_discovery\":{\"id\":\"").append(Math.abs(username.hashCode()))
+                .append("\",\"username\":\"").append(username)
+                .append("\",\"name\":\"").append(username)
+                .append("\",\"biography\":\"Simulated business account\",\"followers_count\":12000,")
+                .append("\"follows_count\":300,\"media_count\":").append(MEDIA_COUNT);
+        if (fields.contains("media{") || MEDIA_LIMIT.matcher(fields).find()) {
+            // One post every two days, paged with "c<offset>" after cursors
+            json.append(",\"media\":{\"data\":[");
+            int offset = Integer.parseInt(match(MEDIA_AFTER, fields, "0"));
+            int end = Math.min(MEDIA_COUNT, offset + Integer.parseInt(match(MEDIA_LIMIT, fields, "25")));
+            Instant now = Instant.now().truncatedTo(ChronoUnit.DAYS);
+            for (int i = offset; i < end; i++) {
+                if (i > offset) {
+                    json.append(',');
+                }
+                json.append("{\"id\":\"").append(username.hashCode() & 0xffff).append('_').append(i)
+                        .append("\",\"media_type\":\"").append(i % 5 == 0 ? "VIDEO" : "IMAGE")
+                        .append("\",\"caption\":\"Post ").append(i)
+                        .append("\",\"like_count\":").append(300 + (i * 37) % 900)
+                        .append(",\"comments_count\":").append(10 + (i * 13) % 90)
+                        .append(",\"timestamp\":\"").append(now.minus(i * 2L, ChronoUnit.DAYS).toString().replace("Z", "+0000")).append("\"}");
+            }
+            json.append("],\"paging\":{\"cursors\":{\"before\":\"c").append(offset)
+                    .append("\",\"after\":\"c").append(end).append("\"}");
+            if (end < MEDIA_COUNT) {
+                json.append(",\"next\":\"https://graph.facebook.com/v23.0/").append(accountId).append("?after=c").append(end).append('"');
+            }
+            json.append("}}");
+        }
+        return json.append("},\"id\":\"").append(accountId).append("\"}").toString();
+    }
+
+    private static String error(String message, int code, boolean transientError) {
+        return """
+                {"error":{"message":"%s","type":"OAuthException","code":%d,"is_transient":%s,\
+                "fbtrace_id":"SimulatedTrace"}}"""
+                .formatted(message, code, transientError);
+    }
+
+    private static String param(QueryStringDecoder query, String name, String fallback) {
+        List<String> values = query.parameters().get(name);
+        return values == null || values.isEmpty() ? fallback : values.get(0);
+    }
+
+    private static String match(Pattern pattern, String fields, String fallback) {
+        Matcher matcher = pattern.matcher(fields);
+        return matcher.find() ? matcher.group(1) : fallback;
+    }
+
+    /**
+     * Simulator knobs; every one can be overridden with a {@code simulator.*} system property.
+     */
+    record Settings(int port, Duration latencyMedian, Duration latencyP99, double errorRate, double throttleRate) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Integer.getInteger("simulator.port", 0),
+                    Duration.ofMillis(Long.getLong("simulator.latency-median-ms", 100)),
+                    Duration.ofMillis(Long.getLong("simulator.latency-p99-ms", 500)),
+                    Double.parseDouble(System.getProperty("simulator.error-rate", "0")),
+                    Double.parseDouble(System.getProperty("simulator.throttle-rate", "0")));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.instagram.businessdiscovery.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop HTTP load generator: keeps a fixed number of requests in flight until the
+ * requested total has completed, and records every response time.
+ */
+final class LoadDriver {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    Report run(String scenario, int total, int concurrency, int expectedStatus, IntFunction<HttpRequest> requests) {
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(total);
+        long[] micros = new long[total];
+        AtomicLong errors = new AtomicLong();
+        AtomicReference<String> firstError = new AtomicReference<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            inFlight.acquireUninterruptibly();
+            int index = i;
+            long sent = System.nanoTime();
+            client.sendAsync(requests.apply(i), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, failure) -> {
+                        micros[index] = (System.nanoTime() - sent) / 1_000;
+                        if (failure != null || response.statusCode() != expectedStatus) {
+                            errors.incrementAndGet();
+                            firstError.compareAndSet(null, failure != null
+                                    ? failure.toString()
+                                    : response.statusCode() + " " + response.body());
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load run interrupted", e);
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Arrays.sort(micros);
+        return new Report(scenario, total, concurrency, elapsed, errors.get(), firstError.get(), micros);
+    }
+
+    /**
+     * Outcome of one run; latencies are kept sorted in microseconds.
+     */
+    record Report(String scenario, int requests, int concurrency, Duration elapsed, long errors,
+                  String firstError, long[] sortedMicros) {
+
+        double throughput() {
+            return requests * 1_000_000_000.0 / Math.max(1, elapsed.toNanos());
+        }
+
+        double percentileMillis(double quantile) {
+            int index = (int) Math.min(sortedMicros.length - 1, Math.ceil(quantile * sortedMicros.length) - 1);
+            return sortedMicros[Math.max(0, index)] / 1_000.0;
+        }
+
+        String summary(String mode) {
+            return String.format("[load] scenario=%s mode=%s requests=%d concurrency=%d elapsed=%dms "
+                            + "throughput=%.1f/s p50=%.1fms p99=%.1fms p999=%.1fms errors=%d",
+                    scenario, mode, requests, concurrency, elapsed.toMillis(), throughput(),
+                    percentileMillis(0.50), percentileMillis(0.99), percentileMillis(0.999), errors);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.instagram.businessdiscovery.load;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"instagram.web.async-mode=false", "spring.threads.virtual.enabled=true"})
+class VirtualThreadLoadTest extends AbstractLoadTest {
+
+    @Override
+    String mode() {
+        return "virtual";
+    }
+
+    @Override
+    void assertGraphUsage(String scenario, GraphApiSimulator graphApi) {
+        // Virtual request threads are not capped by the Tomcat pool size
+        assertThat(graphApi.peakConcurrency()).isGreaterThan(REQUEST_THREADS);
+    }
+
+    @Override
+    void assertElapsed(String scenario, LoadDriver.Report report) {
+        // Blocking on a virtual thread does not hold a pooled request thread, so searches finish faster than any thread-bound mode can
+        Duration threadBound = threadBoundMinimum();
+        if (scenario.equals("search") && threadBound != null) {
+            assertThat(report.elapsed()).isLessThan(threadBound);
+        }
+    }
+}
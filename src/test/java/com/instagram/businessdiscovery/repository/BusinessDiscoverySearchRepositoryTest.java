@@ -0,0 +1,61 @@
+package com.instagram.businessdiscovery.repository;
+
+import com.instagram.businessdiscovery.domain.BusinessDiscoverySearch;
+import com.instagram.businessdiscovery.domain.User;
+import com.instagram.businessdiscovery.dto.SearchHistoryItemDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class BusinessDiscoverySearchRepositoryTest {
+
+    @Autowired
+    private BusinessDiscoverySearchRepository searchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void keysetPagesWalkHistoryNewestFirstWithoutGapsOrDuplicates() {
+        User user = userRepository.save(User.builder().instagramId("17841400000000010").username("history_user").build());
+        LocalDateTime sameSecond = LocalDateTime.of(2026, 1, 1, 12, 0);
+        for (int i = 0; i < 7; i++) {
+            // Several rows share a timestamp so the id tie-breaker is exercised
+            searchRepository.save(BusinessDiscoverySearch.builder()
+                    .searcherUser(user)
+                    .targetUsername("target" + i)
+                    .searchStatus(BusinessDiscoverySearch.SearchStatus.SUCCESS)
+                    .searchResult("{}")
+                    .build());
+        }
+        searchRepository.findAll().forEach(search -> search.setCreatedAt(sameSecond.plusMinutes(search.getId() % 3)));
+        searchRepository.flush();
+
+        List<SearchHistoryItemDto> walked = new ArrayList<>();
+        List<SearchHistoryItemDto> page = searchRepository.findHistoryFirstPage(user.getId(), Limit.of(3));
+        while (!page.isEmpty()) {
+            walked.addAll(page);
+            SearchHistoryItemDto last = page.get(page.size() - 1);
+            page = searchRepository.findHistoryPageAfter(user.getId(), last.getCreatedAt(), last.getId(), Limit.of(3));
+        }
+
+        assertThat(walked).hasSize(7);
+        assertThat(walked).extracting(SearchHistoryItemDto::getId).doesNotHaveDuplicates();
+        for (int i = 1; i < walked.size(); i++) {
+            SearchHistoryItemDto previous = walked.get(i - 1);
+            SearchHistoryItemDto current = walked.get(i);
+            assertThat(previous.getCreatedAt().isAfter(current.getCreatedAt())
+                    || (previous.getCreatedAt().isEqual(current.getCreatedAt()) && previous.getId() > current.getId())).isTrue();
+        }
+    }
+}
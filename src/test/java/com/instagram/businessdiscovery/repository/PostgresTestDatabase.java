@@ -0,0 +1,59 @@
+package com.instagram.businessdiscovery.repository;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * PostgreSQL for the tests that need the real migrations: a Testcontainers PostgreSQL shared by
+ * those tests, or without Docker an existing database given by
+ * {@code -Dpostgres-test.datasource-url=jdbc:postgresql://...} (plus username and password).
+ */
+final class PostgresTestDatabase {
+
+    private static final String DATASOURCE_URL = System.getProperty("postgres-test.datasource-url");
+
+    private static PostgreSQLContainer<?> postgres;
+
+    private PostgresTestDatabase() {
+    }
+
+    static boolean available() {
+        return DATASOURCE_URL != null || DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    /**
+     * Point the datasource at the database, with the given schema as the current one when not null
+     */
+    static void register(DynamicPropertyRegistry registry, String schema) {
+        String url = url(schema);
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", PostgresTestDatabase::username);
+        registry.add("spring.datasource.password", PostgresTestDatabase::password);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    static String url(String schema) {
+        String url = DATASOURCE_URL != null ? DATASOURCE_URL : container().getJdbcUrl();
+        if (schema == null) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + schema;
+    }
+
+    static String username() {
+        return DATASOURCE_URL != null ? System.getProperty("postgres-test.datasource-username") : container().getUsername();
+    }
+
+    static String password() {
+        return DATASOURCE_URL != null ? System.getProperty("postgres-test.datasource-password", "") : container().getPassword();
+    }
+
+    private static synchronized PostgreSQLContainer<?> container() {
+        if (postgres == null) {
+            postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+            postgres.start();
+        }
+        return postgres;
+    }
+}
@@ -0,0 +1,104 @@
+package com.instagram.businessdiscovery.repository;
+
+import com.instagram.businessdiscovery.domain.BusinessDiscoverySearch;
+import com.instagram.businessdiscovery.domain.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Migrations applied to a database created by ddl-auto: update before they were introduced:
+ * Flyway baselines it at V1, runs the rest, and the entities have to validate against the result.
+ * Runs in its own schema of {@link PostgresTestDatabase}; skipped when it is not available.
+ */
+@EnabledIf("com.instagram.businessdiscovery.repository.PostgresTestDatabase#available")
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchemaMigrationTest {
+
+    private static final String SCHEMA = "ddl_auto_upgrade";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BusinessDiscoverySearchRepository searchRepository;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        // Has to exist before the context starts, since Flyway runs while it does
+        new JdbcTemplate(new DriverManagerDataSource(PostgresTestDatabase.url(null),
+                PostgresTestDatabase.username(), PostgresTestDatabase.password()))
+                .execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE; CREATE SCHEMA " + SCHEMA);
+        new ResourceDatabasePopulator(new ClassPathResource("db/ddl-auto-schema.sql"))
+                .execute(new DriverManagerDataSource(PostgresTestDatabase.url(SCHEMA),
+                        PostgresTestDatabase.username(), PostgresTestDatabase.password()));
+        PostgresTestDatabase.register(registry, SCHEMA);
+    }
+
+    @Test
+    void existingDatabaseIsBaselinedAndMigrated() {
+        List<Map<String, Object>> history = jdbcTemplate.queryForList(
+                "SELECT version, type FROM flyway_schema_history WHERE success ORDER BY installed_rank");
+
+        assertThat(history).first().isEqualTo(Map.of("version", "1", "type", "BASELINE"));
+        assertThat(history).extracting(row -> row.get("version")).containsExactly("1", "1.1", "2", "3", "4");
+    }
+
+    @Test
+    void existingSearchesAreKeptInTheirMonthlyPartitions() {
+        List<Map<String, Object>> searches = jdbcTemplate.queryForList(
+                "SELECT target_username, search_result, tableoid::regclass::text AS partition " +
+                        "FROM business_discovery_searches ORDER BY id");
+
+        // The search without a time lands in the default partition
+        assertThat(searches)
+                .extracting(row -> tuple(row.get("target_username"), row.get("search_result"), row.get("partition")))
+                .containsExactly(
+                        tuple("nike", "{\"username\":\"nike\"}", "business_discovery_searches_2025_01"),
+                        tuple("adidas", null, "business_discovery_searches_2025_03"),
+                        tuple("puma", "{\"username\":\"puma\"}", "business_discovery_searches_default"));
+    }
+
+    @Test
+    void newRowsGetIdsAfterTheExistingOnes() {
+        Long lastSearchId = jdbcTemplate.queryForObject("SELECT max(id) FROM business_discovery_searches", Long.class);
+        User old = userRepository.findByUsername("old_user").orElseThrow();
+
+        User user = userRepository.save(User.builder().instagramId("17841400000000002").username("new_user").build());
+        BusinessDiscoverySearch search = searchRepository.save(BusinessDiscoverySearch.builder()
+                .searcherUser(user)
+                .targetUsername("nike")
+                .searchStatus(BusinessDiscoverySearch.SearchStatus.SUCCESS)
+                .searchResultData(new byte[]{1})
+                .build());
+
+        assertThat(user.getId()).isGreaterThan(old.getId());
+        assertThat(search.getId()).isGreaterThan(lastSearchId);
+    }
+}
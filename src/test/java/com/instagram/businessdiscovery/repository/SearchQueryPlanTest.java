@@ -0,0 +1,224 @@
+package com.instagram.businessdiscovery.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.instagram.businessdiscovery.domain.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans of the search table's hot queries, as generated by Hibernate, on PostgreSQL with the
+ * migrations applied: each has to read its index and skip partitions outside its time range.
+ * Runs on {@link PostgresTestDatabase}, which has to be empty; skipped when it is not available.
+ */
+@EnabledIf("com.instagram.businessdiscovery.repository.PostgresTestDatabase#available")
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.instagram.businessdiscovery.repository.SearchQueryPlanTest$LastStatement"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+// Seeded data has to be committed and vacuumed for realistic plans
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SearchQueryPlanTest {
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Set<String> INDEX_SCANS = Set.of("Index Scan", "Index Only Scan", "Bitmap Index Scan");
+
+    private static boolean seeded;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private BusinessDiscoverySearchRepository searchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresTestDatabase.register(registry, null);
+    }
+
+    @BeforeEach
+    void seed() {
+        if (!seeded) {
+            // 200 users, 200k searches, one per minute over the last ~4.6 months, 5000 targets
+            searchRepository.createMonthlyPartitions(LocalDateTime.now().minusMonths(6).toLocalDate(), 10);
+            jdbcTemplate.update("INSERT INTO users (instagram_id, username) " +
+                    "SELECT 'ig' || g, 'user' || g FROM generate_series(1, 200) g");
+            jdbcTemplate.update("INSERT INTO business_discovery_searches (id, searcher_user_id, target_username, search_status, created_at) " +
+                    "SELECT nextval('business_discovery_searches_seq'), (SELECT min(id) FROM users) + g % 200, 'target' || g % 5000, " +
+                    "CASE WHEN g % 10 = 0 THEN 'FAILED' ELSE 'SUCCESS' END, localtimestamp - g * interval '1 minute' " +
+                    "FROM generate_series(1, 200000) g");
+            jdbcTemplate.execute("VACUUM ANALYZE business_discovery_searches");
+            seeded = true;
+        }
+        user = userRepository.findByUsername("user42").orElseThrow();
+    }
+
+    @Test
+    void countSearchesByUserSinceReadsOnlyTheUserIndexOfRecentPartitions() {
+        LocalDateTime since = LocalDateTime.now().minusHours(1);
+        searchRepository.countSearchesByUserSince(user, since);
+
+        List<Scan> scans = explain(LastStatement.sql, user.getId(), since);
+
+        assertThat(partitionsBefore(scans, since)).isEmpty();
+        assertThat(scanOf(scans, partitionOf(since)))
+                .returns("Index Only Scan", Scan::nodeType)
+                .returns("idx_searches_user_created", Scan::index);
+    }
+
+    @Test
+    void findRecentSearchesByUserUsesTheUserIndexOfRecentPartitions() {
+        LocalDateTime since = LocalDateTime.now().minusDays(1);
+        searchRepository.findRecentSearchesByUser(user, since);
+
+        List<Scan> scans = explain(LastStatement.sql, user.getId(), since);
+
+        assertThat(partitionsBefore(scans, since)).isEmpty();
+        Scan scan = scanOf(scans, partitionOf(since));
+        assertThat(scan.nodeType()).isIn(INDEX_SCANS);
+        assertThat(scan.index()).isEqualTo("idx_searches_user_created");
+    }
+
+    @Test
+    void findByTargetUsernameUsesTheTargetIndexOfEveryPartitionWithData() {
+        searchRepository.findByTargetUsernameOrderByCreatedAtDesc("target42");
+
+        List<Scan> scans = explain(LastStatement.sql, "target42");
+
+        List<String> withData = jdbcTemplate.queryForList(
+                "SELECT DISTINCT tableoid::regclass::text FROM business_discovery_searches", String.class);
+        assertThat(withData).hasSizeGreaterThan(1);
+        for (String partition : withData) {
+            Scan scan = scanOf(scans, partition);
+            assertThat(scan.nodeType()).as(partition).isIn(INDEX_SCANS);
+            assertThat(scan.index()).as(partition).isEqualTo("idx_searches_target_created");
+        }
+    }
+
+    @Test
+    void concurrentPartitionCreationCreatesEachMonthOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int year = 2090; year < 2095; year++) {
+                LocalDate from = LocalDate.of(year, 1, 1);
+                CyclicBarrier start = new CyclicBarrier(2);
+                Callable<Integer> create = () -> {
+                    start.await();
+                    return searchRepository.createMonthlyPartitions(from, 6);
+                };
+                Future<Integer> first = executor.submit(create);
+                Future<Integer> second = executor.submit(create);
+
+                assertThat(first.get() + second.get()).isEqualTo(6);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Scan> explain(String sql, Object... parameters) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class, parameters);
+        List<Scan> scans = new ArrayList<>();
+        try {
+            collectScans(objectMapper.readTree(plan).get(0).get("Plan"), scans);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan: " + plan, e);
+        }
+        return scans;
+    }
+
+    private void collectScans(JsonNode node, List<Scan> scans) {
+        if (node.has("Relation Name") || node.has("Index Name")) {
+            String index = node.has("Index Name") ? parentIndex(node.get("Index Name").asText()) : null;
+            String relation = node.has("Relation Name") ? node.get("Relation Name").asText() : relationOf(node.get("Index Name").asText());
+            scans.add(new Scan(node.get("Node Type").asText(), relation, index));
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectScans(child, scans);
+        }
+    }
+
+    // Partitions get their own copies of the indexes, with generated names
+    private String parentIndex(String partitionIndex) {
+        List<String> parents = jdbcTemplate.queryForList(
+                "SELECT inhparent::regclass::text FROM pg_inherits WHERE inhrelid = ?::regclass", String.class, partitionIndex);
+        return parents.isEmpty() ? partitionIndex : parents.get(0);
+    }
+
+    private String relationOf(String index) {
+        return jdbcTemplate.queryForObject("SELECT indrelid::regclass::text FROM pg_index WHERE indexrelid = ?::regclass",
+                String.class, index);
+    }
+
+    private static Scan scanOf(List<Scan> scans, String partition) {
+        // A bitmap scan shows up as a heap node on the table plus an index node
+        return scans.stream()
+                .filter(scan -> partition.equals(scan.relation()) && scan.index() != null)
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(partition + " not read through an index: " + scans));
+    }
+
+    private static List<String> partitionsBefore(List<Scan> scans, LocalDateTime since) {
+        String first = partitionOf(since);
+        return scans.stream()
+                .map(Scan::relation)
+                .filter(relation -> relation.matches("business_discovery_searches_\\d{4}_\\d{2}") && relation.compareTo(first) < 0)
+                .toList();
+    }
+
+    private static String partitionOf(LocalDateTime time) {
+        return "business_discovery_searches_" + time.format(PARTITION_MONTH);
+    }
+
+    private record Scan(String nodeType, String relation, String index) {
+    }
+
+    /**
+     * The SQL of the last statement Hibernate prepared, so plans are taken of the real queries
+     */
+    public static class LastStatement implements StatementInspector {
+
+        static volatile String sql;
+
+        @Override
+        public String inspect(String statement) {
+            sql = statement;
+            return statement;
+        }
+    }
+}
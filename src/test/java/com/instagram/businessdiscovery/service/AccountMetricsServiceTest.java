@@ -0,0 +1,66 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.dto.AccountMetricsPointDto;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(AccountMetricsService.class)
+class AccountMetricsServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    @Autowired
+    private AccountMetricsService metricsService;
+
+    @Test
+    void followerGrowthIsMeasuredAgainstTheOldestSampleInTheWindow() {
+        assertThat(metricsService.record(account("1784", 1000, 2.0), START.minusDays(40))).isNull();
+        assertThat(metricsService.record(account("1784", 1200, 2.0), START.minusDays(20))).isCloseTo(20.0, within(1e-9));
+        // The 40-day-old sample is outside the 30 day window now, so the 20-day-old one is the baseline
+        assertThat(metricsService.record(account("1784", 1500, 2.0), START)).isCloseTo(25.0, within(1e-9));
+        assertThat(metricsService.record(account("other", 10, null), START)).isNull();
+    }
+
+    @Test
+    void rangeQueriesAreDownsampledPerBucket() {
+        metricsService.record(account("1785", 100, 1.0), START.plusHours(1));
+        metricsService.record(account("1785", 110, 3.0), START.plusHours(20));
+        metricsService.record(account("1785", 120, null), START.plusDays(1).plusHours(2));
+        metricsService.record(account("1785", 130, 5.0), START.plusDays(5));
+        metricsService.record(account("other", 999, 9.0), START.plusHours(3));
+
+        List<AccountMetricsPointDto> raw = metricsService.getSeries("1785", START, START.plusDays(5), Duration.ZERO);
+        List<AccountMetricsPointDto> daily = metricsService.getSeries("1785", START, START.plusDays(6), Duration.ofDays(1));
+
+        assertThat(raw).extracting(AccountMetricsPointDto::getFollowersCount).containsExactly(100, 110, 120);
+        assertThat(daily).extracting(AccountMetricsPointDto::getSampledAt)
+                .containsExactly(START, START.plusDays(1), START.plusDays(5));
+        assertThat(daily).extracting(AccountMetricsPointDto::getFollowersCount).containsExactly(110, 120, 130);
+        assertThat(daily).extracting(AccountMetricsPointDto::getAverageEngagementRate).containsExactly(2.0, null, 5.0);
+    }
+
+    private static BusinessDiscoveryDto account(String id, int followers, Double engagementRate) {
+        return BusinessDiscoveryDto.builder()
+                .id(id)
+                .followersCount(followers)
+                .followsCount(10)
+                .mediaCount(50)
+                .insights(engagementRate != null
+                        ? BusinessDiscoveryDto.AccountInsightsDto.builder().averageEngagementRate(engagementRate).build()
+                        : null)
+                .build();
+    }
+}
@@ -0,0 +1,105 @@
+package com.instagram.businessdiscovery.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BusinessDiscoveryCacheTest {
+
+    private static final DiscoveryKey KEY = DiscoveryKey.of("nike", false);
+
+    private AsyncCache<DiscoveryKey, CachedDiscovery> asyncCache;
+    private BusinessDiscoveryCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        asyncCache = Caffeine.newBuilder().buildAsync();
+        cache = new BusinessDiscoveryCache(asyncCache, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "freshTtl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(cache, "staleWhileRevalidate", Duration.ofHours(1));
+    }
+
+    @Test
+    void cachesResolvedValue() {
+        StepVerifier.create(cache.get(KEY, () -> load("fresh"))).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.get(KEY, () -> load("fresh"))).expectNextCount(1).verifyComplete();
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void servesStaleValueWhileRefreshingInBackground() {
+        putFetchedAgo(Duration.ofMinutes(10), "stale");
+
+        StepVerifier.create(cache.get(KEY, () -> load("refreshed")))
+                .assertNext(entry -> {
+                    assertThat(entry.result().getName()).isEqualTo("stale");
+                    assertThat(entry.isYoungerThan(Duration.ofMinutes(5))).isFalse();
+                })
+                .verifyComplete();
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getIfFresh(KEY).getName()).isEqualTo("refreshed");
+    }
+
+    @Test
+    void fallsBackToStaleValueWhenGraphApiFails() {
+        putFetchedAgo(Duration.ofHours(2), "stale");
+
+        StepVerifier.create(cache.get(KEY, () -> Mono.error(new RuntimeException("Graph API unavailable"))))
+                .assertNext(entry -> {
+                    assertThat(entry.result().getName()).isEqualTo("stale");
+                    assertThat(entry.isYoungerThan(Duration.ofHours(1))).isFalse();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void marksOnlyTheLookupThatCalledTheLoaderAsFetched() {
+        StepVerifier.create(cache.get(KEY, () -> load("fresh")))
+                .assertNext(entry -> assertThat(entry.fetched()).isTrue())
+                .verifyComplete();
+        StepVerifier.create(cache.get(KEY, () -> load("fresh")))
+                .assertNext(entry -> assertThat(entry.fetched()).isFalse())
+                .verifyComplete();
+
+        putFetchedAgo(Duration.ofMinutes(10), "stale");
+        StepVerifier.create(cache.get(KEY, () -> load("refreshed")))
+                .assertNext(entry -> assertThat(entry.fetched()).isFalse())
+                .verifyComplete();
+    }
+
+    @Test
+    void propagatesErrorWhenNothingIsCached() {
+        StepVerifier.create(cache.get(KEY, () -> Mono.error(new RuntimeException("Graph API unavailable"))))
+                .verifyErrorMessage("Graph API unavailable");
+
+        assertThat(asyncCache.getIfPresent(KEY)).isNull();
+    }
+
+    private Mono<BusinessDiscoveryDto> load(String name) {
+        return Mono.fromCallable(() -> {
+            loads.incrementAndGet();
+            return BusinessDiscoveryDto.builder().username("nike").name(name).build();
+        });
+    }
+
+    private void putFetchedAgo(Duration age, String name) {
+        BusinessDiscoveryDto dto = BusinessDiscoveryDto.builder().username("nike").name(name).build();
+        asyncCache.put(KEY, CompletableFuture.completedFuture(new CachedDiscovery(dto, Instant.now().minus(age))));
+    }
+}
@@ -0,0 +1,111 @@
+package com.instagram.businessdiscovery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class BusinessDiscoveryResponseParserTest {
+
+    private final BusinessDiscoveryResponseParser parser = new BusinessDiscoveryResponseParser(new ObjectMapper(),
+            Clock.fixed(Instant.parse("2026-01-20T00:00:00Z"), ZoneOffset.UTC));
+
+    @Test
+    void readsProfileAndMediaWithEngagementInOnePass() throws IOException {
+        BusinessDiscoveryDto dto = parse("""
+                {"business_discovery":{"id":"17841401","username":"acme","name":"Acme","biography":null,
+                 "followers_count":1000,"follows_count":"12","media_count":2,"website":"https://acme.test",
+                 "media":{"data":[
+                   {"id":"1","media_type":"IMAGE","like_count":90,"comments_count":10,"timestamp":"2026-01-02T10:00:00+0000",
+                    "children":{"data":[{"id":"9"}]}},
+                   {"id":"2","media_type":"VIDEO","like_count":40,"caption":"hi"}
+                 ],"paging":{"cursors":{"after":"QVFI"}}}},
+                 "id":"17841400000000001"}
+                """);
+
+        assertThat(dto.getId()).isEqualTo("17841401");
+        assertThat(dto.getUsername()).isEqualTo("acme");
+        assertThat(dto.getBiography()).isNull();
+        assertThat(dto.getFollowsCount()).isEqualTo(12);
+        assertThat(dto.getRecentMedia()).extracting(BusinessDiscoveryDto.MediaInsightDto::getId).containsExactly("1", "2");
+        assertThat(dto.getRecentMedia().get(0).getEngagementRate()).isEqualTo(10.0);
+        assertThat(dto.getRecentMedia().get(1).getCommentsCount()).isNull();
+        assertThat(dto.getRecentMedia().get(1).getEngagementRate()).isEqualTo(4.0);
+        assertThat(dto.getInsights().getTotalLikes()).isEqualTo(130);
+        assertThat(dto.getInsights().getTotalComments()).isEqualTo(10);
+        assertThat(dto.getInsights().getAverageEngagementRate()).isCloseTo(7.0, within(1e-9));
+        // Only the dated post falls inside the last 30 days
+        assertThat(dto.getInsights().getPostsLast30Days()).isEqualTo(1);
+    }
+
+    @Test
+    void ratesPostsWhenFollowersCountComesAfterMedia() throws IOException {
+        BusinessDiscoveryDto dto = parse("""
+                {"business_discovery":{"media":{"data":[{"id":"1","like_count":5,"comments_count":5}]},
+                 "followers_count":200}}
+                """);
+
+        assertThat(dto.getRecentMedia().get(0).getEngagementRate()).isEqualTo(5.0);
+        assertThat(dto.getInsights().getAverageEngagementRate()).isEqualTo(5.0);
+    }
+
+    @Test
+    void mediaPageCarriesTheAfterCursorOnlyWhenThereIsANextPage() throws IOException {
+        MediaPage page = parsePage("""
+                {"business_discovery":{"followers_count":100,"media":{"data":[{"id":"1","like_count":5}],
+                 "paging":{"cursors":{"before":"QVFA","after":"QVFI"},"next":"https://graph.facebook.com/next"}}}}
+                """);
+        MediaPage last = parsePage("""
+                {"business_discovery":{"followers_count":100,"media":{"data":[{"id":"2"}],
+                 "paging":{"cursors":{"before":"QVFJ","after":"QVFK"}}}}}
+                """);
+
+        assertThat(page.followersCount()).isEqualTo(100);
+        assertThat(page.posts()).extracting(BusinessDiscoveryDto.MediaInsightDto::getEngagementRate).containsExactly(5.0);
+        assertThat(page.after()).isEqualTo("QVFI");
+        assertThat(last.after()).isNull();
+    }
+
+    @Test
+    void returnsNullWithoutBusinessDiscovery() throws IOException {
+        assertThat(parse("{\"error\":{\"message\":\"Invalid user id\",\"code\":110}}")).isNull();
+    }
+
+    @Test
+    void recognizesUnknownUserErrors() {
+        assertThat(parser.isUnknownUserError("""
+                {"error":{"message":"Invalid user id","type":"OAuthException","code":110,"error_subcode":2207013}}
+                """.getBytes(StandardCharsets.UTF_8))).isTrue();
+        assertThat(parser.isUnknownUserError("""
+                {"error":{"message":"An unexpected error has occurred.","code":2,"is_transient":true}}
+                """.getBytes(StandardCharsets.UTF_8))).isFalse();
+        assertThat(parser.isUnknownUserError("<html>".getBytes(StandardCharsets.UTF_8))).isFalse();
+        assertThat(parser.isUnknownUserError(new byte[0])).isFalse();
+    }
+
+    @Test
+    void leavesInsightsEmptyWithoutFollowers() throws IOException {
+        BusinessDiscoveryDto dto = parse("{\"business_discovery\":{\"media\":{\"data\":[{\"id\":\"1\",\"like_count\":3}]}}}");
+
+        assertThat(dto.getRecentMedia()).hasSize(1);
+        assertThat(dto.getRecentMedia().get(0).getEngagementRate()).isNull();
+        assertThat(dto.getInsights()).isNull();
+    }
+
+    private BusinessDiscoveryDto parse(String json) throws IOException {
+        return parser.parse(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private MediaPage parsePage(String json) throws IOException {
+        return parser.parseMediaPage(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,104 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.domain.User;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+class BusinessDiscoveryServiceMediaStreamTest {
+
+    private static final DateTimeFormatter GRAPH_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+    private static final int PAGE_SIZE = 10;
+
+    private final InstagramApiService instagramApiService = mock(InstagramApiService.class);
+    private final SearchRateLimiter rateLimiter = mock(SearchRateLimiter.class);
+    private final AtomicInteger fetchedPages = new AtomicInteger();
+    private final User user = User.builder().id(1L).instagramId("1784").username("searcher").accessToken("token").build();
+
+    private BusinessDiscoveryService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BusinessDiscoveryService(mock(BusinessDiscoverySearchRepository.class), mock(SearchResultWriter.class), instagramApiService,
+                mock(BusinessDiscoveryCache.class), mock(NegativeDiscoveryCache.class), mock(LatestResultStore.class), rateLimiter,
+                mock(UserSearchStatsService.class), mock(AccountMetricsService.class), mock(SearchResultCodecs.class), Schedulers.immediate(),
+                new SimpleMeterRegistry());
+        setField(service, "mediaPageSize", PAGE_SIZE);
+        setField(service, "maxStreamedPosts", 1000);
+        setField(service, "maxMediaHorizon", Duration.ofDays(90));
+        when(rateLimiter.tryAcquire(any())).thenReturn(true);
+        // Five pages of ten posts, one post a day, handed out only on demand
+        when(instagramApiService.getMediaPages(anyString(), anyString(), anyString(), anyInt()))
+                .thenReturn(Flux.generate(sink -> {
+                    int page = fetchedPages.getAndIncrement();
+                    sink.next(page(page, page < 4 ? "c" + (page + 1) : null));
+                    if (page == 4) {
+                        sink.complete();
+                    }
+                }));
+    }
+
+    @Test
+    void stopsFetchingPagesOnceMaxPostsIsReached() {
+        StepVerifier.create(service.streamMedia(user, "acme", 15, Duration.ofDays(90)))
+                .expectNextCount(15)
+                .verifyComplete();
+
+        assertThat(fetchedPages).hasValue(2);
+    }
+
+    @Test
+    void stopsAtTheDateHorizon() {
+        List<BusinessDiscoveryDto.MediaInsightDto> posts = service.streamMedia(user, "acme", 1000, Duration.ofDays(25))
+                .collectList()
+                .block();
+
+        assertThat(posts).hasSize(25);
+        assertThat(fetchedPages).hasValue(3);
+    }
+
+    @Test
+    void insightsAreUpdatedAfterEveryPage() {
+        StepVerifier.create(service.streamInsights(user, "acme", 1000, Duration.ofDays(90)))
+                .assertNext(insights -> assertThat(insights.getTotalLikes()).isEqualTo(10 * 100))
+                .assertNext(insights -> assertThat(insights.getTotalLikes()).isEqualTo(20 * 100))
+                .thenCancel()
+                .verify();
+
+        assertThat(fetchedPages.get()).isLessThanOrEqualTo(3);
+    }
+
+    private static MediaPage page(int page, String after) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        List<BusinessDiscoveryDto.MediaInsightDto> posts = IntStream.range(0, PAGE_SIZE)
+                .mapToObj(i -> BusinessDiscoveryDto.MediaInsightDto.builder()
+                        .id(page + "_" + i)
+                        .likeCount(100)
+                        .commentsCount(0)
+                        .timestamp(now.minusDays(page * PAGE_SIZE + i).minusHours(1).format(GRAPH_TIMESTAMP))
+                        .build())
+                .toList();
+        return new MediaPage(1000, posts, after);
+    }
+}
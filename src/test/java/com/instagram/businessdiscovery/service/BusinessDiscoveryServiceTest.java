@@ -0,0 +1,127 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.domain.User;
+import com.instagram.businessdiscovery.dto.BatchSearchResultDto;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+class BusinessDiscoveryServiceTest {
+
+    private final InstagramApiService instagramApiService = mock(InstagramApiService.class);
+    private final SearchRateLimiter rateLimiter = mock(SearchRateLimiter.class);
+    private final AccountMetricsService accountMetricsService = mock(AccountMetricsService.class);
+    private final SearchResultWriter searchResultWriter = mock(SearchResultWriter.class);
+    private final BusinessDiscoveryService service = new BusinessDiscoveryService(mock(BusinessDiscoverySearchRepository.class),
+            searchResultWriter, instagramApiService, mock(BusinessDiscoveryCache.class), mock(NegativeDiscoveryCache.class),
+            mock(LatestResultStore.class), rateLimiter, mock(UserSearchStatsService.class), accountMetricsService,
+            mock(SearchResultCodecs.class), Schedulers.immediate(), new SimpleMeterRegistry());
+    private final User user = User.builder().id(1L).instagramId("1784").username("searcher").accessToken("token").build();
+
+    @Test
+    void staleCachedResultAddsNoSampleAndStaysUntouched() {
+        BusinessDiscoveryDto cached = BusinessDiscoveryDto.builder().id("42").username("acme").followersCount(110)
+                .insights(BusinessDiscoveryDto.AccountInsightsDto.builder().averageEngagementRate(2.0).build())
+                .build();
+        CachedDiscovery stale = new CachedDiscovery(cached, Instant.now().minus(Duration.ofMinutes(20)));
+        when(rateLimiter.tryAcquire(any())).thenReturn(true);
+        when(instagramApiService.getBusinessDiscovery("1784", "acme", "token")).thenReturn(Mono.just(stale));
+        when(accountMetricsService.followerGrowthRate(cached, stale.fetchedAtLocal())).thenReturn(10.0);
+
+        StepVerifier.create(service.searchBusinessAccount(user, "acme", false))
+                .assertNext(result -> assertThat(result.getInsights().getFollowerGrowthRate()).isEqualTo(10.0))
+                .verifyComplete();
+
+        verify(accountMetricsService, never()).record(any(), any());
+        assertThat(cached.getInsights().getFollowerGrowthRate()).isNull();
+        ArgumentCaptor<CachedDiscovery> written = ArgumentCaptor.forClass(CachedDiscovery.class);
+        verify(searchResultWriter).submit(any(), eq(DiscoveryKey.of("acme", false)), written.capture());
+        assertThat(written.getValue().fetchedAt()).isEqualTo(stale.fetchedAt());
+    }
+
+    @Test
+    void batchLooksUpEachDistinctTargetWithinTheConcurrencyCapAndReportsFailuresPerItem() {
+        setField(service, "batchConcurrency", 3);
+        // Six search slots left for eight distinct targets
+        AtomicInteger slots = new AtomicInteger(6);
+        when(rateLimiter.tryAcquire(1L)).thenAnswer(invocation -> slots.getAndDecrement() > 0);
+        when(rateLimiter.getHourlyRateLimit()).thenReturn(6);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(instagramApiService.getBusinessDiscovery(eq("1784"), anyString(), eq("token"))).thenAnswer(invocation -> {
+            String target = invocation.getArgument(1);
+            return Mono.defer(() -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        return target.equals("broken")
+                                ? Mono.<CachedDiscovery>error(new RuntimeException("Graph API error"))
+                                : Mono.delay(Duration.ofMillis(200))
+                                        .map(tick -> CachedDiscovery.now(BusinessDiscoveryDto.builder().username(target).build()));
+                    })
+                    .doOnTerminate(running::decrementAndGet);
+        });
+
+        List<String> targets = List.of("t1", " t2 ", "t2", "", "  ", "broken", "t3", "t4", "t5", "t6", "t7");
+        StepVerifier.create(service.searchBusinessAccounts(user, targets, false))
+                .recordWith(ArrayList::new)
+                .thenConsumeWhile(item -> true)
+                .consumeRecordedWith(items -> {
+                    assertThat(items).extracting(BatchSearchResultDto::getTargetUsername)
+                            .containsExactlyInAnyOrder("t1", "t2", "broken", "t3", "t4", "t5", "t6", "t7");
+                    // Slots are taken in request order, so the last two targets are rate limited
+                    assertThat(items)
+                            .filteredOn(item -> item.getStatus() == BatchSearchResultDto.Status.FAILED)
+                            .extracting(BatchSearchResultDto::getTargetUsername, BatchSearchResultDto::getError)
+                            .containsExactlyInAnyOrder(
+                                    tuple("broken", "Graph API error"),
+                                    tuple("t6", "Rate limit exceeded. Maximum 6 searches per hour."),
+                                    tuple("t7", "Rate limit exceeded. Maximum 6 searches per hour."));
+                    assertThat(items)
+                            .filteredOn(item -> item.getStatus() == BatchSearchResultDto.Status.SUCCESS)
+                            .extracting(item -> item.getResult().getUsername())
+                            .containsExactlyInAnyOrder("t1", "t2", "t3", "t4", "t5");
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        verify(rateLimiter, times(8)).tryAcquire(1L);
+        verify(instagramApiService, times(6)).getBusinessDiscovery(eq("1784"), anyString(), eq("token"));
+        assertThat(maxRunning.get()).isGreaterThan(1).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void fetchedResultIsSampledAtItsFetchTime() {
+        BusinessDiscoveryDto fetched = BusinessDiscoveryDto.builder().id("42").username("acme").followersCount(110).build();
+        CachedDiscovery discovery = CachedDiscovery.now(fetched).asFetched();
+        when(rateLimiter.tryAcquire(any())).thenReturn(true);
+        when(instagramApiService.getBusinessDiscovery("1784", "acme", "token")).thenReturn(Mono.just(discovery));
+
+        StepVerifier.create(service.searchBusinessAccount(user, "acme", false))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(accountMetricsService).record(fetched, discovery.fetchedAtLocal());
+    }
+}
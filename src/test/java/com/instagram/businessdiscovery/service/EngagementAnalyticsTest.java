@@ -0,0 +1,102 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class EngagementAnalyticsTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-20T00:00:00Z");
+
+    @Test
+    void summarisesPostsInOnePass() {
+        List<BusinessDiscoveryDto.MediaInsightDto> media = List.of(
+                post("1", "IMAGE", 90, 10, "2026-01-19T00:00:00+0000"),
+                post("2", "VIDEO", 40, 0, "2026-01-17T00:00:00+0000"),
+                post("3", "IMAGE", 20, 0, "2026-01-15T00:00:00+0000"),
+                post("4", "CAROUSEL_ALBUM", 200, 50, "2025-11-10T00:00:00+0000"),
+                post("5", "REELS", 5, 5, null));
+
+        BusinessDiscoveryDto.AccountInsightsDto insights = EngagementAnalytics.of(media, 1000, NOW.minusSeconds(30 * 86_400));
+
+        assertThat(insights.getTotalLikes()).isEqualTo(355);
+        assertThat(insights.getAverageLikes()).isEqualTo(71.0);
+        assertThat(insights.getAverageEngagementRate()).isCloseTo(8.4, within(1e-9));
+        // Up to five rates are answered exactly
+        assertThat(insights.getMedianEngagementRate()).isCloseTo(4.0, within(1e-9));
+        assertThat(insights.getPostsLast30Days()).isEqualTo(3);
+        // Four dated posts spread over 70 days
+        assertThat(insights.getPostsPerDay()).isCloseTo(3 / 70.0, within(1e-9));
+        assertThat(insights.getEngagementByMediaType()).containsOnlyKeys("IMAGE", "VIDEO", "CAROUSEL_ALBUM", "OTHER");
+        assertThat(insights.getEngagementByMediaType().get("IMAGE").getPosts()).isEqualTo(2);
+        assertThat(insights.getEngagementByMediaType().get("IMAGE").getAverageEngagement()).isEqualTo(60.0);
+        assertThat(insights.getTopPosts()).extracting(BusinessDiscoveryDto.MediaInsightDto::getId)
+                .containsExactly("4", "1", "2", "3", "5");
+    }
+
+    @Test
+    void keepsOnlyTheMostEngagingPosts() {
+        List<BusinessDiscoveryDto.MediaInsightDto> media = new ArrayList<>();
+        IntStream.range(0, 100).forEach(i -> media.add(post(String.valueOf(i), "IMAGE", i, 0, null)));
+        Collections.shuffle(media, new Random(7));
+
+        EngagementAnalytics analytics = new EngagementAnalytics(1000, NOW);
+        media.forEach(analytics::add);
+
+        assertThat(analytics.toDto().getTopPosts()).extracting(BusinessDiscoveryDto.MediaInsightDto::getId)
+                .containsExactly("99", "98", "97", "96", "95");
+        // Taking a snapshot leaves the heap intact
+        analytics.add(post("best", "VIDEO", 500, 0, null));
+        assertThat(analytics.toDto().getTopPosts()).extracting(BusinessDiscoveryDto.MediaInsightDto::getId)
+                .containsExactly("best", "99", "98", "97", "96");
+    }
+
+    @Test
+    void quantileSketchTracksTheMedianAndP90() {
+        List<Double> values = new ArrayList<>();
+        IntStream.rangeClosed(1, 10_000).forEach(i -> values.add((double) i));
+        Collections.shuffle(values, new Random(42));
+        P2Quantile median = new P2Quantile(0.5);
+        P2Quantile p90 = new P2Quantile(0.9);
+        values.forEach(value -> {
+            median.add(value);
+            p90.add(value);
+        });
+
+        assertThat(median.value()).isCloseTo(5_000, within(100.0));
+        assertThat(p90.value()).isCloseTo(9_000, within(100.0));
+    }
+
+    @Test
+    void readsGraphTimestampsLikeTheFormatter() {
+        DateTimeFormatter graphTimestamp = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
+        for (String timestamp : List.of("2026-01-20T10:15:30+0000", "2024-02-29T23:59:59-0530",
+                "1999-12-31T00:00:00+1400", "2026-03-01T00:00:00+0000")) {
+            assertThat(EngagementAnalytics.epochSecond(timestamp))
+                    .isEqualTo(OffsetDateTime.parse(timestamp, graphTimestamp).toEpochSecond());
+        }
+        assertThat(EngagementAnalytics.epochSecond("yesterday")).isEqualTo(EngagementAnalytics.NO_TIMESTAMP);
+    }
+
+    private static BusinessDiscoveryDto.MediaInsightDto post(String id, String type, int likes, int comments,
+                                                             String timestamp) {
+        return BusinessDiscoveryDto.MediaInsightDto.builder()
+                .id(id)
+                .mediaType(type)
+                .likeCount(likes)
+                .commentsCount(comments)
+                .timestamp(timestamp)
+                .build();
+    }
+}
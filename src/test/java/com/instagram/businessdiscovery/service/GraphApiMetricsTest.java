@@ -0,0 +1,50 @@
+package com.instagram.businessdiscovery.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GraphApiMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GraphApiMetrics metrics = new GraphApiMetrics(registry);
+
+    @Test
+    void recordsEachCallUnderItsEndpointAndOutcome() {
+        StepVerifier.create(Mono.just("ok").transform(metrics.timed("profile"))).expectNext("ok").verifyComplete();
+        StepVerifier.create(Mono.error(WebClientResponseException.create(HttpStatus.BAD_REQUEST.value(),
+                        "Bad Request", null, null, null))
+                .transform(metrics.timed("profile"))).verifyError();
+        StepVerifier.create(Mono.error(WebClientResponseException.create(HttpStatus.BAD_GATEWAY.value(),
+                        "Bad Gateway", null, null, null))
+                .transform(metrics.timed("business_discovery"))).verifyError();
+
+        assertThat(count("profile", "success")).isEqualTo(1);
+        assertThat(count("profile", "client_error")).isEqualTo(1);
+        assertThat(count("business_discovery", "server_error")).isEqualTo(1);
+    }
+
+    @Test
+    void cancelledCallsAreRecordedSeparately() {
+        StepVerifier.create(Mono.delay(Duration.ofSeconds(10)).transform(metrics.timed("page")))
+                .thenCancel()
+                .verify();
+
+        assertThat(count("page", "cancelled")).isEqualTo(1);
+    }
+
+    private long count(String endpoint, String outcome) {
+        return registry.get("instagram.graph.requests")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+}
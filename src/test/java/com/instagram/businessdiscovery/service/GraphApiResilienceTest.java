@@ -0,0 +1,184 @@
+package com.instagram.businessdiscovery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+class GraphApiResilienceTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final GraphApiResilience resilience = new GraphApiResilience(new ObjectMapper(), new SimpleMeterRegistry(), clock);
+
+    @BeforeEach
+    void setUp() {
+        setField(resilience, "enabled", true);
+        setField(resilience, "attemptTimeout", Duration.ofSeconds(5));
+        setField(resilience, "maxRetries", 2);
+        setField(resilience, "backoff", Duration.ofMillis(1));
+        setField(resilience, "maxBackoff", Duration.ofMillis(5));
+        setField(resilience, "retryBudgetRatio", 0.1);
+        setField(resilience, "retryBudgetMaxTokens", 20.0);
+        setField(resilience, "breakerWindow", 4);
+        setField(resilience, "breakerMinimumCalls", 4);
+        setField(resilience, "breakerFailureRate", 50.0);
+        setField(resilience, "breakerOpenDuration", Duration.ofSeconds(30));
+        setField(resilience, "hedgeEnabled", true);
+        setField(resilience, "hedgeQuantile", 0.95);
+        setField(resilience, "hedgeMinDelay", Duration.ofMillis(20));
+        setField(resilience, "hedgeMinSamples", 5);
+    }
+
+    @Test
+    void retriesServerErrorsButNotClientErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> flaky = Mono.defer(() -> attempts.incrementAndGet() < 3
+                ? Mono.error(error(HttpStatus.SERVICE_UNAVAILABLE, ""))
+                : Mono.just("ok"));
+        StepVerifier.create(flaky.transform(resilience.resilient("profile", GraphApiResilience.Policy.RETRY)))
+                .expectNext("ok")
+                .verifyComplete();
+        assertThat(attempts).hasValue(3);
+
+        AtomicInteger clientErrors = new AtomicInteger();
+        Mono<String> notFound = Mono.defer(() -> {
+            clientErrors.incrementAndGet();
+            return Mono.error(error(HttpStatus.BAD_REQUEST, "{\"error\":{\"code\":110}}"));
+        });
+        StepVerifier.create(notFound.transform(resilience.resilient("profile", GraphApiResilience.Policy.RETRY)))
+                .expectError(WebClientResponseException.BadRequest.class)
+                .verify();
+        assertThat(clientErrors).hasValue(1);
+
+        // Temporary Graph API errors come as client errors too
+        AtomicInteger temporary = new AtomicInteger();
+        Mono<String> unavailable = Mono.defer(() -> temporary.incrementAndGet() < 2
+                ? Mono.error(error(HttpStatus.BAD_REQUEST, "{\"error\":{\"code\":2,\"is_transient\":true}}"))
+                : Mono.just("ok"));
+        StepVerifier.create(unavailable.transform(resilience.resilient("page", GraphApiResilience.Policy.RETRY)))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+
+    @Test
+    void retriesStopWhenTheBudgetIsSpent() {
+        setField(resilience, "retryBudgetRatio", 0.0);
+        setField(resilience, "retryBudgetMaxTokens", 3.0);
+        setField(resilience, "maxRetries", 10);
+
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> failing = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(error(HttpStatus.BAD_GATEWAY, ""));
+        });
+        StepVerifier.create(failing.transform(resilience.resilient("me_accounts", GraphApiResilience.Policy.RETRY)))
+                .expectError(WebClientResponseException.BadGateway.class)
+                .verify();
+        assertThat(attempts).hasValue(4);
+    }
+
+    @Test
+    void openBreakerFailsFastUntilAProbeSucceeds() {
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> failing = Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(error(HttpStatus.INTERNAL_SERVER_ERROR, ""));
+        });
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(failing.transform(resilience.resilient("access_token", GraphApiResilience.Policy.ONCE)))
+                    .expectError(WebClientResponseException.InternalServerError.class)
+                    .verify();
+        }
+
+        StepVerifier.create(failing.transform(resilience.resilient("access_token", GraphApiResilience.Policy.ONCE)))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOfSatisfying(GraphApiUnavailableException.class,
+                                unavailable -> assertThat(unavailable.getRetryAfter()).isEqualTo(Duration.ofSeconds(30))))
+                .verify();
+        assertThat(attempts).hasValue(4);
+
+        // Other endpoints keep their own breaker
+        StepVerifier.create(Mono.just("ok").transform(resilience.resilient("profile", GraphApiResilience.Policy.ONCE)))
+                .expectNext("ok")
+                .verifyComplete();
+
+        clock.advance(Duration.ofSeconds(30));
+        StepVerifier.create(Mono.just("ok").transform(resilience.resilient("access_token", GraphApiResilience.Policy.ONCE)))
+                .expectNext("ok")
+                .verifyComplete();
+        StepVerifier.create(Mono.just("ok").transform(resilience.resilient("access_token", GraphApiResilience.Policy.ONCE)))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+
+    @Test
+    void hedgesLookupsSlowerThanRecentLatencies() {
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(Mono.just("fast").transform(resilience.resilient("business_discovery", GraphApiResilience.Policy.HEDGE)))
+                    .expectNext("fast")
+                    .verifyComplete();
+        }
+
+        AtomicInteger attempts = new AtomicInteger();
+        Mono<String> stuckOnce = Mono.defer(() -> attempts.incrementAndGet() == 1 ? Mono.never() : Mono.just("hedged"));
+        StepVerifier.create(stuckOnce.transform(resilience.resilient("business_discovery", GraphApiResilience.Policy.HEDGE)))
+                .expectNext("hedged")
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+        assertThat(attempts).hasValue(2);
+
+        // Without a latency history a slow lookup is left alone
+        AtomicInteger mediaAttempts = new AtomicInteger();
+        Mono<String> slow = Mono.defer(() -> {
+            mediaAttempts.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(100)).thenReturn("slow");
+        });
+        StepVerifier.create(slow.transform(resilience.resilient("business_discovery_media", GraphApiResilience.Policy.HEDGE)))
+                .expectNext("slow")
+                .verifyComplete();
+        assertThat(mediaAttempts).hasValue(1);
+    }
+
+    private static WebClientResponseException error(HttpStatus status, String body) {
+        return WebClientResponseException.create(status.value(), status.getReasonPhrase(), null,
+                body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-20T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
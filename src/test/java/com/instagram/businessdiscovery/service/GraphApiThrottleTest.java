@@ -0,0 +1,112 @@
+package com.instagram.businessdiscovery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+class GraphApiThrottleTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final GraphApiThrottle throttle = new GraphApiThrottle(new ObjectMapper(), new SimpleMeterRegistry(), clock);
+
+    @BeforeEach
+    void setUp() {
+        setField(throttle, "enabled", true);
+        setField(throttle, "softLimit", 75.0);
+        setField(throttle, "maxInterval", Duration.ofMillis(200));
+        setField(throttle, "maxQueueWait", Duration.ofSeconds(5));
+        setField(throttle, "limitBackoff", Duration.ofSeconds(60));
+    }
+
+    @Test
+    void spacesCallsOutAsAppUsageNearsTheLimit() {
+        exchange("token", ClientResponse.create(HttpStatus.OK)
+                .header(GraphApiThrottle.APP_USAGE, "{\"call_count\":40,\"total_cputime\":90,\"total_time\":60}")
+                .build());
+
+        // 90% is 60% of the way from the soft limit to 100%, so calls are 120ms apart
+        assertThat(throttle.admit("token")).isZero();
+        assertThat(throttle.admit("token")).isEqualTo(Duration.ofMillis(120));
+        assertThat(throttle.admit("other")).isEqualTo(Duration.ofMillis(240));
+
+        // The estimate decays over the rolling hour without fresh headers
+        clock.advance(Duration.ofMinutes(30));
+        assertThat(throttle.admit("token")).isZero();
+        assertThat(throttle.admit("token")).isZero();
+    }
+
+    @Test
+    void shedsCallsOfABlockedTokenUntilItRegainsAccess() {
+        exchange("blocked", ClientResponse.create(HttpStatus.BAD_REQUEST)
+                .header(GraphApiThrottle.BUSINESS_USE_CASE_USAGE, "{\"17841400000\":[{\"type\":\"instagram\","
+                        + "\"call_count\":100,\"total_cputime\":20,\"total_time\":25,\"estimated_time_to_regain_access\":2}]}")
+                .build());
+
+        assertThatThrownBy(() -> throttle.admit("blocked"))
+                .isInstanceOfSatisfying(GraphApiThrottledException.class,
+                        error -> assertThat(error.getRetryAfter()).isEqualTo(Duration.ofMinutes(2)));
+        assertThat(throttle.admit("other")).isZero();
+
+        // Close to the end of the recovery window calls queue instead of failing
+        clock.advance(Duration.ofSeconds(117));
+        assertThat(throttle.admit("blocked")).isEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    void backsOffWhenTheAppLimitIsReached() {
+        exchange(null, ClientResponse.create(HttpStatus.BAD_REQUEST)
+                .header(GraphApiThrottle.APP_USAGE, "{\"call_count\":100,\"total_cputime\":35,\"total_time\":40}")
+                .build());
+
+        assertThatThrownBy(() -> throttle.admit("token")).isInstanceOf(GraphApiThrottledException.class);
+        clock.advance(Duration.ofSeconds(61));
+        assertThat(throttle.admit("token")).isZero();
+    }
+
+    private void exchange(String accessToken, ClientResponse response) {
+        URI uri = URI.create("https://graph.facebook.com/v23.0/1784" + (accessToken != null ? "?access_token=" + accessToken : ""));
+        throttle.filter()
+                .filter(ClientRequest.create(HttpMethod.GET, uri).build(), request -> Mono.just(response))
+                .block();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-20T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
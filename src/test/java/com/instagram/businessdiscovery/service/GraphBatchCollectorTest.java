@@ -0,0 +1,166 @@
+package com.instagram.businessdiscovery.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+class GraphBatchCollectorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> sentBatches = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private DisposableServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.post("/", (request, response) -> response
+                        .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                        .sendString(request.receive().aggregate().asString()
+                                .map(form -> {
+                                    try {
+                                        return answerBatch(form);
+                                    } catch (IOException e) {
+                                        throw new UncheckedIOException(e);
+                                    }
+                                }))))
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.disposeNow();
+    }
+
+    @Test
+    void lookupsWithinTheWindowShareOneBatchCall() {
+        GraphBatchCollector collector = collector(Duration.ofMillis(50), 50);
+
+        List<String> bodies = Flux.range(0, 3)
+                .flatMap(i -> collector.submit("token", "1784?fields=target" + i))
+                .map(body -> new String(body, StandardCharsets.UTF_8))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(sentBatches).hasSize(1);
+        assertThat(bodies).containsExactlyInAnyOrder("{\"echo\":\"1784?fields=target0\"}",
+                "{\"echo\":\"1784?fields=target1\"}", "{\"echo\":\"1784?fields=target2\"}");
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheWindow() {
+        GraphBatchCollector collector = collector(Duration.ofMinutes(1), 50);
+
+        List<byte[]> bodies = Flux.range(0, 60)
+                .flatMap(i -> collector.submit("token", "1784?fields=target" + i))
+                .take(50)
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(bodies).hasSize(50);
+        assertThat(sentBatches).hasSize(1);
+        assertThat(sentBatches.get(0)).hasSize(GraphBatchCollector.GRAPH_BATCH_LIMIT);
+    }
+
+    @Test
+    void differentTokensAreNotMixedAndFailedItemsFailOnlyTheirCaller() {
+        GraphBatchCollector collector = collector(Duration.ofMillis(20), 50);
+
+        Mono<byte[]> failing = collector.submit("token-a", "fail");
+        Mono<byte[]> other = collector.submit("token-b", "1784?fields=ok");
+
+        StepVerifier.create(failing)
+                .expectErrorSatisfies(error -> assertThat(((WebClientResponseException) error).getStatusCode().value())
+                        .isEqualTo(400))
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(other).expectNextCount(1).verifyComplete();
+        assertThat(sentBatches).hasSize(2);
+    }
+
+    @Test
+    void subResponseWithoutAStatusCodeFailsOnlyItsCaller() {
+        GraphBatchCollector collector = collector(Duration.ofMillis(50), 50);
+
+        Mono<byte[]> missing = collector.submit("token", "no-code").cache();
+        Mono<byte[]> ok = collector.submit("token", "1784?fields=ok").cache();
+        missing.subscribe(body -> { }, error -> { });
+        ok.subscribe(body -> { }, error -> { });
+
+        StepVerifier.create(missing)
+                .expectErrorMessage("Graph API batch response has no valid status code: null")
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(ok).expectNextCount(1).verifyComplete();
+        assertThat(sentBatches).hasSize(1);
+    }
+
+    @Test
+    void cancelledLookupsAreLeftOutOfTheBatch() throws InterruptedException {
+        GraphBatchCollector collector = collector(Duration.ofMillis(100), 50);
+
+        collector.submit("token", "1784?fields=cancelled").subscribe().dispose();
+        StepVerifier.create(collector.submit("token", "1784?fields=kept")).expectNextCount(1).verifyComplete();
+        collector.submit("token", "1784?fields=alone").subscribe().dispose();
+        Thread.sleep(300);
+
+        assertThat(sentBatches).hasSize(1);
+        assertThat(sentBatches.get(0)).hasSize(1);
+        assertThat(sentBatches.get(0).get(0).get("relative_url").asText()).isEqualTo("1784?fields=kept");
+    }
+
+    private GraphBatchCollector collector(Duration window, int maxSize) {
+        GraphBatchCollector collector = new GraphBatchCollector(WebClient.create(), objectMapper,
+                new GraphApiMetrics(registry), registry);
+        setField(collector, "instagramApiBaseUrl", "http://localhost:" + server.port());
+        setField(collector, "window", window);
+        setField(collector, "maxSize", maxSize);
+        return collector;
+    }
+
+    /**
+     * Echoes each relative URL back as its sub-response body; "fail" gets a 400, "no-code" no status code
+     */
+    private String answerBatch(String form) throws IOException {
+        JsonNode items = objectMapper.readTree(new QueryStringDecoder(form, false).parameters().get("batch").get(0));
+        sentBatches.add(items);
+
+        ArrayNode responses = objectMapper.createArrayNode();
+        for (JsonNode item : items) {
+            String relativeUrl = item.get("relative_url").asText();
+            if (relativeUrl.equals("no-code")) {
+                responses.addObject().put("body", "{}");
+                continue;
+            }
+            boolean fail = relativeUrl.equals("fail");
+            responses.addObject()
+                    .put("code", fail ? 400 : 200)
+                    .put("body", fail ? "{\"error\":{\"code\":100}}" : "{\"echo\":\"" + relativeUrl + "\"}");
+        }
+        return responses.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package com.instagram.businessdiscovery.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InFlightRequestRegistryTest {
+
+    private final InFlightRequestRegistry registry = new InFlightRequestRegistry(new SimpleMeterRegistry());
+
+    @Test
+    void concurrentCallersForSameKeyShareOneCall() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> response = Sinks.one();
+
+        Mono<String> first = registry.execute(DiscoveryKey.of("Nike", false), () -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        });
+        Mono<String> second = registry.execute(DiscoveryKey.of("@nike", false), () -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        });
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> response.tryEmitValue("result"))
+                .assertNext(results -> assertThat(results.getT1()).isEqualTo(results.getT2()))
+                .verifyComplete();
+
+        assertThat(calls).hasValue(1);
+        assertThat(registry.getCoalescedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void completedCallIsNotReused() {
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(registry.execute(DiscoveryKey.of("nike", true),
+                            () -> Mono.fromCallable(calls::incrementAndGet)))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+
+        assertThat(calls).hasValue(2);
+        assertThat(registry.getExecutedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void mediaFlagIsPartOfTheKey() {
+        Sinks.One<String> response = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+
+        Mono<String> withoutMedia = registry.execute(DiscoveryKey.of("nike", false), () -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        });
+        Mono<String> withMedia = registry.execute(DiscoveryKey.of("nike", true), () -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        });
+
+        StepVerifier.create(Mono.zip(withoutMedia, withMedia))
+                .then(() -> response.tryEmitValue("result"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(calls).hasValue(2);
+    }
+}
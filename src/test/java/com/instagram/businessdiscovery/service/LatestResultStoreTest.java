@@ -0,0 +1,111 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.domain.LatestDiscoveryResult;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.repository.LatestDiscoveryResultRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "instagram.api.business-discovery.shared-cache.ttl=1h")
+@ActiveProfiles("test")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({LatestResultStore.class, SearchResultCodecs.class, JsonSearchResultCodec.class, SmileSearchResultCodec.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LatestResultStoreTest {
+
+    // Within the database's timestamp precision, so stored times compare equal
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @Autowired
+    private LatestResultStore store;
+
+    @Autowired
+    private LatestDiscoveryResultRepository repository;
+
+    @Test
+    void olderResultWrittenAfterANewerOneIsIgnored() {
+        DiscoveryKey key = DiscoveryKey.of("acme", false);
+        store.upsert(key, result("acme", 200), NOW.minusMinutes(5));
+        store.upsert(key, result("acme", 100), NOW.minusMinutes(20));
+
+        CachedDiscovery latest = store.find(key).orElseThrow();
+        assertThat(latest.result().getFollowersCount()).isEqualTo(200);
+        assertThat(latest.fetchedAtLocal()).isEqualTo(NOW.minusMinutes(5));
+
+        store.upsert(key, result("acme", 300), NOW.minusMinutes(1));
+        assertThat(store.find(key).orElseThrow().result().getFollowersCount()).isEqualTo(300);
+    }
+
+    @Test
+    void concurrentFirstWritesKeepTheNewestResult() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 10; i++) {
+                DiscoveryKey key = DiscoveryKey.of("race" + i, true);
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<?> older = executor.submit(upsertAfter(start, key, result("race" + i, 100), NOW.minusMinutes(10)));
+                Future<?> newer = executor.submit(upsertAfter(start, key, result("race" + i, 200), NOW.minusMinutes(2)));
+                older.get(5, TimeUnit.SECONDS);
+                newer.get(5, TimeUnit.SECONDS);
+
+                CachedDiscovery latest = store.find(key).orElseThrow();
+                assertThat(latest.result().getFollowersCount()).as(key.username()).isEqualTo(200);
+                assertThat(latest.fetchedAtLocal()).as(key.username()).isEqualTo(NOW.minusMinutes(2));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void resultOlderThanTheTtlIsNotFound() {
+        store.upsert(DiscoveryKey.of("expired", false), result("expired", 100), NOW.minusMinutes(61));
+        store.upsert(DiscoveryKey.of("fresh", false), result("fresh", 100), NOW.minusMinutes(59));
+
+        assertThat(store.find(DiscoveryKey.of("expired", false))).isEmpty();
+        assertThat(store.find(DiscoveryKey.of("fresh", false))).isPresent();
+        assertThat(store.find(DiscoveryKey.of("fresh", true))).isEmpty();
+    }
+
+    @Test
+    void resultStoredAsJsonBeforeEncodingIsStillRead() {
+        repository.save(LatestDiscoveryResult.builder()
+                .targetUsername("legacy")
+                .includeMedia(false)
+                .searchResult("{\"username\":\"legacy\",\"followers_count\":100}")
+                .fetchedAt(NOW.minusMinutes(5))
+                .build());
+
+        assertThat(store.find(DiscoveryKey.of("legacy", false)).orElseThrow().result().getFollowersCount()).isEqualTo(100);
+    }
+
+    private Callable<Void> upsertAfter(CyclicBarrier start, DiscoveryKey key, BusinessDiscoveryDto result, LocalDateTime fetchedAt) {
+        return () -> {
+            start.await();
+            store.upsert(key, result, fetchedAt);
+            return null;
+        };
+    }
+
+    private static BusinessDiscoveryDto result(String username, int followersCount) {
+        return BusinessDiscoveryDto.builder().id("1784" + username).username(username).followersCount(followersCount).build();
+    }
+}
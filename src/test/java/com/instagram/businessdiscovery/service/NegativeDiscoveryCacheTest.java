@@ -0,0 +1,72 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.domain.User;
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+class NegativeDiscoveryCacheTest {
+
+    private final NegativeDiscoveryCache cache = new NegativeDiscoveryCache(new SimpleMeterRegistry());
+
+    @BeforeEach
+    void setUp() {
+        setField(cache, "enabled", true);
+        setField(cache, "notFoundTtl", Duration.ofMinutes(10));
+        setField(cache, "notBusinessTtl", Duration.ofMinutes(30));
+    }
+
+    @Test
+    void keepsNotFoundAnswersButNotTransientFailures() {
+        cache.record("@Missing.Handle", new BusinessDiscoveryNotFoundException(
+                BusinessDiscoveryNotFoundException.Reason.NOT_FOUND, "Instagram user missing.handle cannot be found."));
+        cache.record("flaky", new RuntimeException("503 Service Unavailable"));
+        cache.record("blocked", new GraphApiThrottledException(Duration.ofSeconds(30)));
+
+        BusinessDiscoveryNotFoundException cached = cache.find("missing.handle");
+        assertThat(cached).isNotNull();
+        assertThat(cached.getReason()).isEqualTo(BusinessDiscoveryNotFoundException.Reason.NOT_FOUND);
+        assertThat(cached.getMessage()).isEqualTo("Instagram user missing.handle cannot be found.");
+        assertThat(cache.find("flaky")).isNull();
+        assertThat(cache.find("blocked")).isNull();
+    }
+
+    @Test
+    void repeatLookupsOfAMissingTargetCostNoSearchSlot() {
+        InstagramApiService instagramApiService = mock(InstagramApiService.class);
+        SearchRateLimiter rateLimiter = mock(SearchRateLimiter.class);
+        BusinessDiscoverySearchRepository searchRepository = mock(BusinessDiscoverySearchRepository.class);
+        BusinessDiscoveryService service = new BusinessDiscoveryService(searchRepository, mock(SearchResultWriter.class), instagramApiService,
+                mock(BusinessDiscoveryCache.class), cache, mock(LatestResultStore.class), rateLimiter,
+                mock(UserSearchStatsService.class), mock(AccountMetricsService.class), mock(SearchResultCodecs.class),
+                Schedulers.immediate(), new SimpleMeterRegistry());
+        User user = User.builder().id(1L).instagramId("1784").username("searcher").accessToken("token").build();
+        when(rateLimiter.tryAcquire(any())).thenReturn(true);
+        when(instagramApiService.getBusinessDiscovery("1784", "personal", "token"))
+                .thenReturn(Mono.error(new BusinessDiscoveryNotFoundException(
+                        BusinessDiscoveryNotFoundException.Reason.NOT_FOUND, "Instagram user personal cannot be found.")));
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(service.searchBusinessAccount(user, "personal", false))
+                    .expectError(BusinessDiscoveryNotFoundException.class)
+                    .verify();
+        }
+
+        verify(rateLimiter, times(1)).tryAcquire(1L);
+        verify(instagramApiService, times(1)).getBusinessDiscovery("1784", "personal", "token");
+    }
+}
@@ -0,0 +1,156 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository;
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository.SearchTimestamp;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchRateLimiterTest {
+
+    private final BusinessDiscoverySearchRepository repository = mock(BusinessDiscoverySearchRepository.class);
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T12:00:00Z"));
+
+    private SearchRateLimiter limiter(int limit) {
+        SearchRateLimiter limiter = new SearchRateLimiter(repository, clock);
+        ReflectionTestUtils.setField(limiter, "hourlyRateLimit", limit);
+        return limiter;
+    }
+
+    @Test
+    void concurrentSearchesNeverExceedTheLimit() throws InterruptedException {
+        SearchRateLimiter limiter = limiter(200);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> {
+                start.await();
+                if (limiter.tryAcquire(1L)) {
+                    allowed.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(allowed).hasValue(200);
+        assertThat(limiter.remaining(1L)).isZero();
+    }
+
+    @Test
+    void slotsAreReleasedAfterTheWindowSlides() {
+        SearchRateLimiter limiter = limiter(2);
+
+        assertThat(limiter.tryAcquire(1L)).isTrue();
+        clock.advance(Duration.ofMinutes(30));
+        assertThat(limiter.tryAcquire(1L)).isTrue();
+        assertThat(limiter.tryAcquire(1L)).isFalse();
+
+        clock.advance(Duration.ofMinutes(31));
+        assertThat(limiter.countRecent(1L)).isEqualTo(1);
+        assertThat(limiter.tryAcquire(1L)).isTrue();
+    }
+
+    @Test
+    void rebuildsWindowsFromPersistedSearches() {
+        when(repository.findSearchTimestampsSince(any())).thenReturn(List.of(
+                timestamp(1L, Duration.ofMinutes(10)),
+                timestamp(1L, Duration.ofMinutes(50)),
+                timestamp(2L, Duration.ofMinutes(5))));
+        SearchRateLimiter limiter = limiter(3);
+
+        ReflectionTestUtils.invokeMethod(limiter, "rebuild");
+
+        assertThat(limiter.countRecent(1L)).isEqualTo(2);
+        assertThat(limiter.countRecent(2L)).isEqualTo(1);
+        clock.advance(Duration.ofMinutes(15));
+        assertThat(limiter.countRecent(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileAdoptsLargerPersistedWindowAndDropsIdleUsers() {
+        SearchRateLimiter limiter = limiter(10);
+        limiter.tryAcquire(1L);
+        limiter.tryAcquire(2L);
+
+        List<SearchTimestamp> persisted = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            persisted.add(timestamp(1L, Duration.ofMinutes(i)));
+        }
+        when(repository.findSearchTimestampsSince(any())).thenReturn(persisted);
+        clock.advance(Duration.ofSeconds(1));
+
+        limiter.reconcile();
+        assertThat(limiter.countRecent(1L)).isEqualTo(3);
+
+        clock.advance(Duration.ofHours(2));
+        when(repository.findSearchTimestampsSince(any())).thenReturn(List.of());
+        limiter.reconcile();
+        assertThat(limiter.countRecent(2L)).isZero();
+        assertThat(limiter.tryAcquire(2L)).isTrue();
+    }
+
+    private SearchTimestamp timestamp(Long userId, Duration ago) {
+        LocalDateTime createdAt = LocalDateTime.ofInstant(clock.instant().minus(ago), clock.getZone());
+        return new SearchTimestamp() {
+            @Override
+            public Long getSearcherUserId() {
+                return userId;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+        };
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.instagram.businessdiscovery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.instagram.businessdiscovery.benchmark.BenchmarkData;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchResultCodecsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<SearchResultCodec> codecList = List.of(
+            new JsonSearchResultCodec(objectMapper), new SmileSearchResultCodec(objectMapper));
+
+    @Test
+    void smileRoundTripIsSmallerThanJson() throws IOException {
+        BusinessDiscoveryDto result = BenchmarkData.businessDiscovery(25);
+        SearchResultCodecs codecs = new SearchResultCodecs(codecList, objectMapper, "smile-deflate");
+
+        byte[] data = codecs.encode(result);
+
+        assertThat(data[0]).isEqualTo(SmileSearchResultCodec.FORMAT_VERSION);
+        assertThat(codecs.decode(data, null)).isEqualTo(result);
+        assertThat(data.length).isLessThan(objectMapper.writeValueAsBytes(result).length / 2);
+    }
+
+    @Test
+    void readsRowsWrittenInAnyFormat() throws IOException {
+        BusinessDiscoveryDto result = BenchmarkData.businessDiscovery(3);
+        byte[] jsonData = new SearchResultCodecs(codecList, objectMapper, "json").encode(result);
+        SearchResultCodecs codecs = new SearchResultCodecs(codecList, objectMapper, "smile-deflate");
+
+        assertThat(codecs.decode(jsonData, null)).isEqualTo(result);
+        assertThat(codecs.decode(null, objectMapper.writeValueAsString(result))).isEqualTo(result);
+        assertThat(codecs.decode(null, null)).isNull();
+    }
+
+    @Test
+    void rejectsUnknownFormatVersion() {
+        SearchResultCodecs codecs = new SearchResultCodecs(codecList, objectMapper, "json");
+
+        assertThatThrownBy(() -> codecs.decode(new byte[]{99, 1, 2}, null))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("99");
+    }
+}
@@ -0,0 +1,134 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.domain.BusinessDiscoverySearch;
+import com.instagram.businessdiscovery.domain.User;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+class SearchResultWriterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 20, 12, 0);
+
+    private final BusinessDiscoverySearchRepository searchRepository = mock(BusinessDiscoverySearchRepository.class);
+    private final UserSearchStatsService statsService = mock(UserSearchStatsService.class);
+    private final LatestResultStore latestResultStore = mock(LatestResultStore.class);
+    private final SearchResultWriter writer = new SearchResultWriter(searchRepository, statsService, latestResultStore,
+            new SimpleMeterRegistry(), 1000);
+    private final User alice = User.builder().id(1L).build();
+    private final User bob = User.builder().id(2L).build();
+
+    @BeforeEach
+    void setUp() {
+        setField(writer, "enabled", true);
+        setField(writer, "batchSize", 50);
+        setField(writer, "flushInterval", Duration.ofMillis(50));
+        setField(writer, "enqueueTimeout", Duration.ofMillis(10));
+        setField(writer, "shutdownTimeout", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void writesQueuedSearchesInBatchesAndFlushesOnShutdown() throws InterruptedException {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(searchRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            batchSizes.add(invocation.<List<?>>getArgument(0).size());
+            return invocation.getArgument(0);
+        });
+        writer.start();
+
+        BusinessDiscoveryDto older = BusinessDiscoveryDto.builder().id("1").username("acme").build();
+        BusinessDiscoveryDto newer = BusinessDiscoveryDto.builder().id("1").username("acme").followersCount(10).build();
+        // The later search is answered from a stale cache entry, so its result is the older one
+        CachedDiscovery stale = new CachedDiscovery(older, fetchedAt(NOW.minusMinutes(30)));
+        CachedDiscovery fetched = new CachedDiscovery(newer, fetchedAt(NOW.plusMinutes(5)));
+        for (int i = 0; i < 120; i++) {
+            User searcher = i % 2 == 0 ? alice : bob;
+            writer.submit(search(searcher, "target" + i, BusinessDiscoverySearch.SearchStatus.FAILED, NOW.plusSeconds(i)),
+                    DiscoveryKey.of("target" + i, false), null);
+        }
+        byte[] newerData = {1, 10};
+        byte[] olderData = {1, 0};
+        writer.submit(successful(search(alice, "acme", BusinessDiscoverySearch.SearchStatus.SUCCESS, NOW.plusMinutes(5)), newerData),
+                DiscoveryKey.of("acme", false), fetched);
+        writer.submit(successful(search(bob, "acme", BusinessDiscoverySearch.SearchStatus.SUCCESS, NOW.plusMinutes(6)), olderData),
+                DiscoveryKey.of("acme", false), stale);
+        writer.stop();
+
+        assertThat(batchSizes).allMatch(size -> size <= 50);
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(122);
+        assertThat(batchSizes.size()).isLessThan(122);
+
+        ArgumentCaptor<UserSearchStatsService.SearchTotals> totals = ArgumentCaptor.forClass(UserSearchStatsService.SearchTotals.class);
+        verify(statsService, atLeastOnce()).recordSearches(eq(1L), totals.capture());
+        assertThat(totals.getAllValues().stream().mapToLong(UserSearchStatsService.SearchTotals::totalSearches).sum()).isEqualTo(61);
+        // The latest row reuses the bytes encoded for the search row
+        verify(latestResultStore, atLeastOnce()).upsert(eq(DiscoveryKey.of("acme", false)), eq("1"), same(newerData), eq(NOW.plusMinutes(5)));
+        verify(latestResultStore, never()).upsert(any(), any(), same(olderData), any());
+    }
+
+    @Test
+    void writesSearchesOneByOneWhenTheBatchFails() {
+        when(searchRepository.saveAll(anyList())).thenThrow(new IllegalStateException("batch failed"));
+        when(searchRepository.save(any())).thenAnswer(invocation -> {
+            BusinessDiscoverySearch search = invocation.getArgument(0);
+            if (search.getTargetUsername().equals("broken")) {
+                throw new IllegalStateException("row failed");
+            }
+            return search;
+        });
+
+        BusinessDiscoverySearch first = search(alice, "ok", BusinessDiscoverySearch.SearchStatus.SUCCESS, NOW);
+        first.setId(51L);
+        writer.write(List.of(
+                new SearchResultWriter.PendingSearch(first, DiscoveryKey.of("ok", false), null),
+                new SearchResultWriter.PendingSearch(search(alice, "broken", BusinessDiscoverySearch.SearchStatus.FAILED, NOW),
+                        DiscoveryKey.of("broken", false), null)));
+
+        assertThat(first.getId()).isNull();
+        verify(searchRepository, times(2)).save(any());
+        verify(statsService).recordSearches(1L, new UserSearchStatsService.SearchTotals(1, 1, 0, NOW));
+    }
+
+    private static Instant fetchedAt(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static BusinessDiscoverySearch successful(BusinessDiscoverySearch search, byte[] searchResultData) {
+        search.setTargetInstagramId("1");
+        search.setSearchResultData(searchResultData);
+        return search;
+    }
+
+    private static BusinessDiscoverySearch search(User searcher, String target, BusinessDiscoverySearch.SearchStatus status,
+                                                  LocalDateTime createdAt) {
+        return BusinessDiscoverySearch.builder()
+                .searcherUser(searcher)
+                .targetUsername(target)
+                .searchStatus(status)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.domain.BusinessDiscoverySearch;
+import com.instagram.businessdiscovery.domain.User;
+import com.instagram.businessdiscovery.domain.UserSearchStats;
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository;
+import com.instagram.businessdiscovery.repository.UserRepository;
+import com.instagram.businessdiscovery.repository.UserSearchStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(UserSearchStatsService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserSearchStatsServiceTest {
+
+    @Autowired
+    private UserSearchStatsService statsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BusinessDiscoverySearchRepository searchRepository;
+
+    @Autowired
+    private UserSearchStatsRepository statsRepository;
+
+    @Test
+    void backfillsFromHistoryThenCountsNewSearches() {
+        User user = userRepository.save(User.builder().instagramId("17841400000000001").username("stats_user").build());
+        saveSearch(user, BusinessDiscoverySearch.SearchStatus.SUCCESS);
+        saveSearch(user, BusinessDiscoverySearch.SearchStatus.FAILED);
+
+        UserSearchStatsService.SearchTotals totals = statsService.getTotals(user.getId());
+        assertThat(totals.totalSearches()).isEqualTo(2);
+        assertThat(totals.successfulSearches()).isEqualTo(1);
+        assertThat(totals.failedSearches()).isEqualTo(1);
+
+        BusinessDiscoverySearch latest = saveSearch(user, BusinessDiscoverySearch.SearchStatus.SUCCESS);
+        statsService.recordSearch(user.getId(), latest.getSearchStatus(), latest.getCreatedAt());
+
+        totals = statsService.getTotals(user.getId());
+        assertThat(totals.totalSearches()).isEqualTo(3);
+        assertThat(totals.successfulSearches()).isEqualTo(2);
+        assertThat(totals.lastSearchAt()).isEqualTo(latest.getCreatedAt());
+    }
+
+    @Test
+    void firstRecordedSearchCreatesTheCounters() {
+        User user = userRepository.save(User.builder().instagramId("17841400000000002").username("new_user").build());
+
+        BusinessDiscoverySearch search = saveSearch(user, BusinessDiscoverySearch.SearchStatus.FAILED);
+        statsService.recordSearch(user.getId(), search.getSearchStatus(), search.getCreatedAt());
+
+        UserSearchStatsService.SearchTotals totals = statsService.getTotals(user.getId());
+        assertThat(totals.totalSearches()).isEqualTo(1);
+        assertThat(totals.failedSearches()).isEqualTo(1);
+    }
+
+    @Test
+    void searchRecordedOutOfOrderKeepsTheLatestSearchTime() {
+        User user = userRepository.save(User.builder().instagramId("17841400000000003").username("late_user").build());
+        BusinessDiscoverySearch latest = saveSearch(user, BusinessDiscoverySearch.SearchStatus.SUCCESS);
+        statsService.recordSearch(user.getId(), latest.getSearchStatus(), latest.getCreatedAt());
+
+        // A batch written late carries an older search
+        statsService.recordSearch(user.getId(), BusinessDiscoverySearch.SearchStatus.SUCCESS, latest.getCreatedAt().minusMinutes(5));
+
+        assertThat(statsRepository.findById(user.getId()).orElseThrow().getLastSearchAt()).isEqualTo(latest.getCreatedAt());
+        assertThat(statsService.getTotals(user.getId()).lastSearchAt()).isEqualTo(latest.getCreatedAt());
+    }
+
+    @Test
+    void searchRecordedWhileTotalsAreLoadingIsNotLostFromTheCache() throws Exception {
+        UserSearchStatsRepository repository = mock(UserSearchStatsRepository.class);
+        UserSearchStatsService service = new UserSearchStatsService(repository, searchRepository);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch recorded = new CountDownLatch(1);
+        when(repository.findById(7L))
+                .thenAnswer(invocation -> {
+                    // Row read before the search is counted, returned after it
+                    Optional<UserSearchStats> before = Optional.of(UserSearchStats.builder().userId(7L).totalSearches(1).build());
+                    loading.countDown();
+                    recorded.await(5, TimeUnit.SECONDS);
+                    return before;
+                })
+                .thenReturn(Optional.of(UserSearchStats.builder().userId(7L).totalSearches(2).build()));
+        when(repository.increment(eq(7L), anyLong(), anyLong(), any())).thenReturn(1);
+
+        CompletableFuture<UserSearchStatsService.SearchTotals> load = CompletableFuture.supplyAsync(() -> service.getTotals(7L));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        service.recordSearch(7L, BusinessDiscoverySearch.SearchStatus.SUCCESS, LocalDateTime.now());
+        recorded.countDown();
+        load.get(5, TimeUnit.SECONDS);
+
+        assertThat(service.getTotals(7L).totalSearches()).isEqualTo(2);
+        assertThat(service.getTotals(7L).totalSearches()).isEqualTo(2);
+    }
+
+    private BusinessDiscoverySearch saveSearch(User user, BusinessDiscoverySearch.SearchStatus status) {
+        return searchRepository.save(BusinessDiscoverySearch.builder()
+                .searcherUser(user)
+                .targetUsername("nike")
+                .searchStatus(status)
+                // Within the database's timestamp precision, so stored times compare equal
+                .createdAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS))
+                .build());
+    }
+}
@@ -0,0 +1,129 @@
+package com.instagram.businessdiscovery.service;
+
+import com.instagram.businessdiscovery.domain.LatestDiscoveryResult;
+import com.instagram.businessdiscovery.dto.BusinessDiscoveryDto;
+import com.instagram.businessdiscovery.repository.BusinessDiscoverySearchRepository;
+import com.instagram.businessdiscovery.repository.LatestDiscoveryResultRepository;
+import com.instagram.businessdiscovery.repository.WatchlistEntryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+class WatchlistRefresherTest {
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final WatchlistEntryRepository watchlistRepository = mock(WatchlistEntryRepository.class);
+    private final LatestDiscoveryResultRepository latestResultRepository = mock(LatestDiscoveryResultRepository.class);
+    private final InstagramApiService instagramApiService = mock(InstagramApiService.class);
+    private final LatestResultStore latestResultStore = mock(LatestResultStore.class);
+    private final SearchRateLimiter rateLimiter = new SearchRateLimiter(mock(BusinessDiscoverySearchRepository.class));
+
+    private WatchlistRefresher refresher;
+
+    @BeforeEach
+    void setUp() {
+        setField(rateLimiter, "hourlyRateLimit", 4);
+        refresher = new WatchlistRefresher(watchlistRepository, latestResultRepository, instagramApiService,
+                latestResultStore, mock(AccountMetricsService.class), rateLimiter, Schedulers.immediate(),
+                new SimpleMeterRegistry());
+        setField(refresher, "enabled", true);
+        setField(refresher, "refreshAfter", Duration.ofMinutes(45));
+        setField(refresher, "reservedShare", 0.5);
+        setField(refresher, "maxPerRun", 100);
+        setField(refresher, "concurrency", 1);
+        when(latestResultRepository.findAllById(any())).thenReturn(List.of(
+                latest("fresh", false, now.minusMinutes(10)),
+                latest("stale", false, now.minusHours(2)),
+                latest("popular", true, now.minusHours(1))));
+        when(instagramApiService.refreshBusinessDiscovery(anyString(), anyString(), anyString(), anyBoolean()))
+                .thenReturn(Mono.just(BusinessDiscoveryDto.builder().id("1784").build()));
+    }
+
+    @Test
+    void ranksDueTargetsByAgeTimesWatchers() {
+        List<WatchlistRefresher.Candidate> plan = refresher.plan(List.of(
+                new TestWatch(1L, "fresh", false),
+                new TestWatch(1L, "stale", false),
+                new TestWatch(1L, "popular", true),
+                new TestWatch(2L, "popular", false),
+                new TestWatch(3L, "popular", true),
+                new TestWatch(2L, "never", false)), now);
+
+        // popular: 3 watchers x 1h, never fetched: 1 x 24h cap, stale: 1 x 2h, fresh: not due yet
+        assertThat(plan).extracting(candidate -> candidate.key().username()).containsExactly("never", "popular", "stale");
+        assertThat(plan.get(1).key().includeMedia()).isTrue();
+        assertThat(plan.get(1).watchers()).hasSize(3);
+    }
+
+    @Test
+    void onlySpendsTheUnreservedPartOfTheBudget() {
+        // Half of the 4 searches per hour are reserved, and the user has already made one search
+        rateLimiter.tryAcquire(1L);
+        when(watchlistRepository.findAllWatches()).thenReturn(List.of(
+                new TestWatch(1L, "stale", false),
+                new TestWatch(1L, "never", false),
+                new TestWatch(1L, "popular", true)));
+
+        refresher.refreshWatched();
+
+        verify(instagramApiService, times(1)).refreshBusinessDiscovery(anyString(), anyString(), anyString(), anyBoolean());
+        verify(instagramApiService).refreshBusinessDiscovery("ig1", "never", "token1", false);
+        verify(latestResultStore).upsert(eq(DiscoveryKey.of("never", false)), any(), any());
+        assertThat(rateLimiter.remaining(1L)).isEqualTo(2);
+    }
+
+    private static LatestDiscoveryResult latest(String username, boolean includeMedia, LocalDateTime fetchedAt) {
+        return LatestDiscoveryResult.builder()
+                .targetUsername(username)
+                .includeMedia(includeMedia)
+                .searchResult("{}")
+                .fetchedAt(fetchedAt)
+                .build();
+    }
+
+    private record TestWatch(Long userId, String targetUsername, boolean includeMedia)
+            implements WatchlistEntryRepository.Watch {
+
+        @Override
+        public Long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public String getInstagramId() {
+            return "ig" + userId;
+        }
+
+        @Override
+        public String getAccessToken() {
+            return "token" + userId;
+        }
+
+        @Override
+        public String getTargetUsername() {
+            return targetUsername;
+        }
+
+        @Override
+        public boolean getIncludeMedia() {
+            return includeMedia;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+-- A database as the application left it before migrations were introduced: the schema
+-- ddl-auto: update created for the original entities, with a few searches
+
+create table business_discovery_searches (
+    created_at timestamp(6),
+    id bigserial not null,
+    searcher_user_id bigint not null,
+    error_message varchar(255),
+    search_result TEXT,
+    search_status varchar(255) check (search_status in ('SUCCESS','FAILED','PENDING')),
+    target_instagram_id varchar(255),
+    target_username varchar(255) not null,
+    primary key (id)
+);
+
+create table users (
+    followers_count integer,
+    follows_count integer,
+    media_count integer,
+    created_at timestamp(6),
+    id bigserial not null,
+    updated_at timestamp(6),
+    access_token TEXT,
+    biography TEXT,
+    full_name varchar(255),
+    instagram_id varchar(255) not null unique,
+    profile_picture_url TEXT,
+    username varchar(255) not null unique,
+    primary key (id)
+);
+
+alter table if exists business_discovery_searches
+   add constraint FK47e2jho933s9dfi3vj4obw9xu
+   foreign key (searcher_user_id)
+   references users;
+
+insert into users (instagram_id, username, created_at) values ('17841400000000001', 'old_user', '2025-01-10 09:00:00');
+
+insert into business_discovery_searches (searcher_user_id, target_username, target_instagram_id, search_result, search_status, created_at)
+values ((select id from users), 'nike', '17841400000000100', '{"username":"nike"}', 'SUCCESS', '2025-01-15 10:00:00'),
+       ((select id from users), 'adidas', null, null, 'FAILED', '2025-03-02 12:30:00'),
+       ((select id from users), 'puma', null, '{"username":"puma"}', 'SUCCESS', null);